@@ -0,0 +1,21 @@
+package com.deepoove.swagger.benchmark;
+
+import com.deepoove.swagger.test.SpecGenerator;
+
+/**
+ * shape of the specs shared by the benchmarks
+ */
+final class Benchmarks {
+
+	private Benchmarks() {}
+
+	/**
+	 * two operations per path, one definition per five operations nested by
+	 * three, and 10% of the paths, operations and definitions changed
+	 */
+	static SpecGenerator generator(int operations) {
+		return new SpecGenerator(operations).paths(operations / 2).operationsPerPath(2)
+				.definitions(Math.max(1, operations / 5)).nesting(3).mutationRate(0.1);
+	}
+
+}
@@ -0,0 +1,52 @@
+package com.deepoove.swagger.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.deepoove.swagger.diff.compare.SpecificationDiff;
+import com.deepoove.swagger.test.SpecGenerator.SpecPair;
+
+import io.swagger.models.Swagger;
+
+/**
+ * comparing two parsed specs with SpecificationDiff
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DiffBenchmark {
+
+	@Param({ "100", "1000", "10000" })
+	int operations;
+
+	private Swagger oldSpec;
+	private Swagger newSpec;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		SpecPair pair = Benchmarks.generator(operations).generate();
+		oldSpec = pair.getOldSpec();
+		newSpec = pair.getNewSpec();
+	}
+
+	@Benchmark
+	public SpecificationDiff diff() {
+		return SpecificationDiff.diff(oldSpec, newSpec);
+	}
+
+}
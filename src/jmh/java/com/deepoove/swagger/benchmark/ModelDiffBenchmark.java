@@ -0,0 +1,65 @@
+package com.deepoove.swagger.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.deepoove.swagger.diff.compare.DefinitionDiffCache;
+import com.deepoove.swagger.diff.compare.DefinitionIndex;
+import com.deepoove.swagger.diff.compare.ModelDiff;
+import com.deepoove.swagger.test.SpecGenerator;
+import com.deepoove.swagger.test.SpecGenerator.SpecPair;
+
+import io.swagger.models.Model;
+
+/**
+ * comparing a chain of nested definitions with ModelDiff
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ModelDiffBenchmark {
+
+	@Param({ "10", "100", "500" })
+	int depth;
+
+	@Param({ "false", "true" })
+	boolean recursive;
+
+	private Map<String, Model> oldDefinitions;
+	private Map<String, Model> newDefinitions;
+	private DefinitionIndex oldIndex;
+	private DefinitionIndex newIndex;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		SpecPair pair = new SpecGenerator(depth).paths(0).definitions(depth).nesting(depth)
+				.recursive(recursive).mutationRate(1).generate();
+		oldDefinitions = pair.getOldSpec().getDefinitions();
+		newDefinitions = pair.getNewSpec().getDefinitions();
+		oldIndex = DefinitionIndex.of(oldDefinitions);
+		newIndex = DefinitionIndex.of(newDefinitions);
+	}
+
+	@Benchmark
+	public ModelDiff diff() {
+		return ModelDiff.buildWithIndex(oldIndex, newIndex, new DefinitionDiffCache())
+				.diff(oldDefinitions.get("Definition0"), newDefinitions.get("Definition0"));
+	}
+
+}
@@ -0,0 +1,65 @@
+package com.deepoove.swagger.benchmark;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.deepoove.swagger.test.SpecGenerator;
+
+import io.swagger.models.Swagger;
+import io.swagger.parser.SwaggerParser;
+
+/**
+ * reading and resolving a spec file with SwaggerParser
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParseBenchmark {
+
+	@Param({ "100", "1000", "10000" })
+	int operations;
+
+	private File spec;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		spec = File.createTempFile("swagger-diff-benchmark", ".json");
+		OutputStream out = new FileOutputStream(spec);
+		try {
+			out.write(Benchmarks.generator(operations).generate().getOldJson().getBytes("UTF-8"));
+		} finally {
+			out.close();
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		spec.delete();
+	}
+
+	@Benchmark
+	public Swagger read() {
+		return new SwaggerParser().read(spec.getAbsolutePath(), null, true);
+	}
+
+}
@@ -0,0 +1,75 @@
+package com.deepoove.swagger.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.deepoove.swagger.diff.SwaggerDiff;
+import com.deepoove.swagger.diff.output.HtmlRender;
+import com.deepoove.swagger.diff.output.MarkdownRender;
+import com.deepoove.swagger.diff.output.StreamingRender;
+import com.deepoove.swagger.test.SpecGenerator.SpecPair;
+
+/**
+ * rendering a difference to a String and streaming it to a Writer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RenderBenchmark {
+
+	@Param({ "100", "1000", "10000" })
+	int operations;
+
+	@Param({ "markdown", "html" })
+	String mode;
+
+	private SwaggerDiff diff;
+	private StreamingRender render;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		SpecPair pair = Benchmarks.generator(operations).generate();
+		diff = SwaggerDiff.compare(pair.getOldSpec(), pair.getNewSpec());
+		render = "html".equals(mode) ? new HtmlRender() : new MarkdownRender();
+	}
+
+	@Benchmark
+	public String renderString() {
+		return render.render(diff);
+	}
+
+	@Benchmark
+	public void renderStream(final Blackhole blackhole) throws IOException {
+		render.render(diff, new Writer() {
+			@Override
+			public void write(char[] cbuf, int off, int len) {
+				blackhole.consume(cbuf);
+			}
+
+			@Override
+			public void flush() {}
+
+			@Override
+			public void close() {}
+		});
+	}
+
+}
@@ -0,0 +1,212 @@
+package com.deepoove.swagger.diff;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.deepoove.swagger.diff.compare.PreparedSpec;
+
+import io.swagger.models.auth.AuthorizationValue;
+import io.swagger.parser.util.ClasspathHelper;
+import io.swagger.parser.util.RemoteUrl;
+
+/**
+ * least recently used cache of prepared swagger v2.0 docs, keyed by the
+ * content of the doc so that a doc read again is not parsed again
+ * <p>
+ * The doc is read from its location once on every call to compute the key,
+ * and a doc not cached yet is parsed from the same content, only the parsing
+ * and the resolving of the refs are saved. The key covers the doc itself and
+ * not the docs it refers to by a relative ref. Swagger 1.x docs are made of
+ * many documents and are not cached.
+ * <p>
+ * With a cache directory the parsed docs are also saved on disk, a doc
+ * dropped from memory or read by another run is loaded from its file instead
+ * of being parsed.
+ *
+ * @author Sayi
+ * @version
+ */
+public class PreparedSpecCache {
+
+    private final Map<String, PreparedSpec> specs;
+    private final PreparedSpecStore store;
+
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    /**
+     * @param maxSize
+     *            count of docs kept, the least recently used doc is dropped
+     *            first
+     */
+    public PreparedSpecCache(int maxSize) {
+        this(maxSize, null);
+    }
+
+    /**
+     * @param maxSize
+     *            count of docs kept in memory, the least recently used doc is
+     *            dropped first
+     * @param directory
+     *            where the parsed docs are saved, created if missing, null to
+     *            keep them in memory only
+     */
+    public PreparedSpecCache(final int maxSize, File directory) {
+        if (maxSize < 1) throw new IllegalArgumentException("cache size should be positive");
+        this.specs = new LinkedHashMap<String, PreparedSpec>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedSpec> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.store = null == directory ? null : new PreparedSpecStore(directory);
+    }
+
+    /**
+     * read a swagger doc to compare with other docs, a doc with the same
+     * content as a cached doc is not parsed again
+     *
+     * @param spec
+     *            api-doc location:Json or Http
+     * @param auths
+     * @param version
+     */
+    public PreparedSpec prepare(String spec, List<AuthorizationValue> auths, String version) {
+        if (!SwaggerDiff.SWAGGER_VERSION_V2.equals(version)) {
+            misses.incrementAndGet();
+            return SwaggerDiff.prepare(spec, auths, version);
+        }
+        byte[] content = read(spec, auths);
+        String key = hash(content);
+        PreparedSpec prepared;
+        synchronized (specs) {
+            prepared = specs.get(key);
+        }
+        if (null != prepared) {
+            hits.incrementAndGet();
+            return prepared;
+        }
+        if (null != store) {
+            prepared = store.load(key);
+        }
+        if (null != prepared) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            // the content of the key, parsed by the swagger parser as SwaggerDiff.prepare does
+            prepared = SwaggerDiff.prepareContent(spec, content, auths);
+            if (null != store) {
+                store.store(key, prepared);
+            }
+        }
+        synchronized (specs) {
+            specs.put(key, prepared);
+        }
+        return prepared;
+    }
+
+    /**
+     * read swagger docs through the cache
+     * 
+     * @param executor
+     *            runs the reading of each doc, null to read them in the
+     *            calling thread
+     * @return one prepared doc for each location, in the same order
+     */
+    public List<PreparedSpec> prepareAll(List<String> specs, final List<AuthorizationValue> auths,
+            final String version, Executor executor) {
+        List<Callable<PreparedSpec>> tasks = new ArrayList<Callable<PreparedSpec>>(specs.size());
+        for (final String spec : specs) {
+            tasks.add(new Callable<PreparedSpec>() {
+                public PreparedSpec call() {
+                    return prepare(spec, auths, version);
+                }
+            });
+        }
+        return SwaggerDiff.runAll(tasks, executor);
+    }
+
+    /**
+     * @return count of the docs kept in memory
+     */
+    public int size() {
+        synchronized (specs) {
+            return specs.size();
+        }
+    }
+
+    /**
+     * @return count of the docs found in memory or on disk
+     */
+    public int getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return count of the docs parsed
+     */
+    public int getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * read the content of a doc the way the swagger parser does: http url,
+     * file or classpath resource
+     */
+    static byte[] read(String spec, List<AuthorizationValue> auths) {
+        try {
+            if (spec.toLowerCase().startsWith("http")) {
+                return RemoteUrl.urlToString(spec, auths).getBytes("UTF-8");
+            }
+            File file = new File(spec.replaceAll("^file:", ""));
+            if (file.isFile()) {
+                return readFully(new FileInputStream(file));
+            }
+            return ClasspathHelper.loadFileFromClasspath(spec).getBytes("UTF-8");
+        } catch (Exception e) {
+            throw new RuntimeException("cannot read api-doc from spec.", e);
+        }
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            while (-1 != (n = in.read(buffer))) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+
+    static String hash(byte[] content) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-1").digest(content);
+            StringBuilder sb = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
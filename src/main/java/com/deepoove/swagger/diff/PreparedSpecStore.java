@@ -0,0 +1,201 @@
+package com.deepoove.swagger.diff;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.deepoove.swagger.diff.compare.PreparedSpec;
+import com.deepoove.swagger.diff.compare.SpecFingerprint;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonGeneratorDelegate;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import io.swagger.models.HttpMethod;
+import io.swagger.models.Swagger;
+import io.swagger.parser.SwaggerParser;
+import io.swagger.util.Json;
+
+/**
+ * prepared docs saved in a directory as smile, the binary form of json, with
+ * their fingerprint
+ * <p>
+ * A file is named by the content hash of the doc, the version of the swagger
+ * parser and the version of the file format, a file written by another parser
+ * is not read. The saved doc is resolved already and is read back without
+ * resolving its refs again: the models are bound straight from the smile
+ * tokens by the mapper of swagger, without the deserializer of the swagger
+ * parser and without building a tree of the doc, and the fingerprint is read
+ * back instead of hashing the doc again. The definition index is rebuilt on
+ * demand from the models, it holds the models themselves.
+ *
+ * @author Sayi
+ * @version
+ */
+class PreparedSpecStore {
+
+    private static final int FORMAT = 4;
+    private static final String PARSER_VERSION = parserVersion();
+
+    private static Logger logger = LoggerFactory.getLogger(PreparedSpecStore.class);
+
+    private final ObjectMapper smile = new ObjectMapper(new SmileFactory());
+    private final File directory;
+
+    PreparedSpecStore(File directory) {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalArgumentException("cannot create cache directory " + directory);
+        }
+        this.directory = directory;
+    }
+
+    /**
+     * @return the saved doc, null if there is none or it cannot be read
+     */
+    PreparedSpec load(String key) {
+        File file = file(key);
+        if (!file.isFile()) return null;
+        try {
+            Swagger swagger = null;
+            JsonNode fingerprint = null;
+            JsonParser parser = smile.getFactory().createParser(new BufferedInputStream(new FileInputStream(file)));
+            try {
+                if (JsonToken.START_OBJECT != parser.nextToken()) return null;
+                while (JsonToken.FIELD_NAME == parser.nextToken()) {
+                    String name = parser.getCurrentName();
+                    parser.nextToken();
+                    if ("swagger".equals(name)) {
+                        swagger = Json.mapper().readValue(parser, Swagger.class);
+                    } else if ("fingerprint".equals(name)) {
+                        fingerprint = parser.readValueAsTree();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } finally {
+                parser.close();
+            }
+            if (null == swagger || null == fingerprint) return null;
+            Map<String, Map<HttpMethod, String>> operations = new HashMap<String, Map<HttpMethod, String>>();
+            for (Iterator<Entry<String, JsonNode>> it = fingerprint.get("operations").fields(); it.hasNext();) {
+                Entry<String, JsonNode> path = it.next();
+                Map<HttpMethod, String> hashes = new LinkedHashMap<HttpMethod, String>();
+                for (Entry<String, String> op : strings(path.getValue()).entrySet()) {
+                    hashes.put(HttpMethod.valueOf(op.getKey()), op.getValue());
+                }
+                operations.put(path.getKey(), hashes);
+            }
+            return PreparedSpec.of(swagger, SpecFingerprint.of(strings(fingerprint.get("definitions")),
+                    strings(fingerprint.get("paths")), operations));
+        } catch (Exception e) {
+            logger.warn("cannot read cached api-doc " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * save the doc, a doc which cannot be saved is only logged
+     */
+    void store(String key, PreparedSpec spec) {
+        File tmp = null;
+        try {
+            tmp = File.createTempFile(key, ".tmp", directory);
+            JsonGenerator gen = new JsonNumbers(smile.getFactory().createGenerator(new FileOutputStream(tmp)));
+            try {
+                gen.writeStartObject();
+                gen.writeFieldName("swagger");
+                Json.mapper().writeValue(gen, spec.getSwagger());
+                gen.writeFieldName("fingerprint");
+                Json.mapper().writeValue(gen, spec.getFingerprint());
+                gen.writeEndObject();
+            } finally {
+                gen.close();
+            }
+            // readers see the whole file or none
+            File file = file(key);
+            if (!tmp.renameTo(file) && !file.isFile()) {
+                throw new IOException("cannot rename " + tmp + " to " + file);
+            }
+        } catch (IOException e) {
+            logger.warn("cannot cache api-doc in " + directory, e);
+        } finally {
+            if (null != tmp) tmp.delete();
+        }
+    }
+
+    /**
+     * writes the decimals as the json numbers they were parsed from: the
+     * models of swagger read their numbers through a tree, which strips the
+     * zeros of an exact decimal, 10 would come back as 1E+1
+     */
+    private static final class JsonNumbers extends JsonGeneratorDelegate {
+
+        private static final BigDecimal MIN_LONG = BigDecimal.valueOf(Long.MIN_VALUE);
+        private static final BigDecimal MAX_LONG = BigDecimal.valueOf(Long.MAX_VALUE);
+
+        JsonNumbers(JsonGenerator generator) {
+            super(generator, false);
+        }
+
+        @Override
+        public void writeNumber(BigDecimal value) throws IOException {
+            if (null == value) {
+                super.writeNumber(value);
+            } else if (value.scale() <= 0 && value.compareTo(MIN_LONG) >= 0 && value.compareTo(MAX_LONG) <= 0) {
+                super.writeNumber(value.longValue());
+            } else {
+                // the parser of swagger reads a decimal as a double too
+                super.writeNumber(value.doubleValue());
+            }
+        }
+    }
+
+    private File file(String key) {
+        return new File(directory, key + "-" + PARSER_VERSION + "-" + FORMAT + ".smile");
+    }
+
+    private static Map<String, String> strings(JsonNode node) {
+        Map<String, String> map = new HashMap<String, String>();
+        for (Iterator<Entry<String, JsonNode>> it = node.fields(); it.hasNext();) {
+            Entry<String, JsonNode> entry = it.next();
+            map.put(entry.getKey(), entry.getValue().asText());
+        }
+        return map;
+    }
+
+    private static String parserVersion() {
+        InputStream in = SwaggerParser.class
+                .getResourceAsStream("/META-INF/maven/io.swagger/swagger-parser/pom.properties");
+        if (null == in) return "unknown";
+        try {
+            Properties properties = new Properties();
+            properties.load(in);
+            return properties.getProperty("version", "unknown");
+        } catch (IOException e) {
+            return "unknown";
+        } finally {
+            try {
+                in.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+}
@@ -0,0 +1,325 @@
+package com.deepoove.swagger.diff;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLEncoder;
+import java.nio.channels.FileChannel;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.zip.GZIPInputStream;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+
+import io.swagger.models.Model;
+import io.swagger.models.Path;
+import io.swagger.models.Response;
+import io.swagger.models.Swagger;
+import io.swagger.models.auth.AuthorizationValue;
+import io.swagger.models.parameters.Parameter;
+import io.swagger.parser.SwaggerResolver;
+import io.swagger.parser.util.SwaggerDeserializationResult;
+import io.swagger.parser.util.SwaggerDeserializer;
+import io.swagger.util.Json;
+import io.swagger.util.Yaml;
+
+/**
+ * read a swagger v2.0 doc with a streaming parser
+ * <p>
+ * The doc is never held as a whole tree: each path, definition, shared
+ * parameter and shared response is read as a small tree and turned into its
+ * model by the deserializer of the swagger parser, then dropped. The other
+ * root fields (host, basePath, schemes, security, tags...) are small, they
+ * are read together and turned into the doc the same way. The messages of the
+ * deserializer are returned with the doc, and a doc without the swagger field
+ * is not read, as {@link io.swagger.parser.SwaggerParser} does. The refs are
+ * resolved the same way too, so both readers give the same models.
+ * <p>
+ * A local file is mapped in memory and parsed from the mapped bytes, without
+ * copying the doc into a string first. A doc compressed with gzip, such as an
+ * archived .json.gz, is decompressed while it is parsed. The file is closed
+ * once it is mapped, but the mapping itself is only released when it is
+ * collected, until then the file cannot be deleted on Windows.
+ *
+ * @author Sayi
+ * @version
+ */
+final class StreamingSpecReader {
+
+    private StreamingSpecReader() {}
+
+    /**
+     * @param location
+     *            api-doc location:Json or Yaml, plain or gzip, Http, file or
+     *            classpath
+     * @return the resolved doc and the messages of the deserializer, the doc
+     *         is null if the location has no swagger v2.0 doc
+     */
+    static SwaggerDeserializationResult read(String location, List<AuthorizationValue> auths)
+            throws IOException {
+        InputStream in = open(location, auths);
+        if (null == in) return new SwaggerDeserializationResult().message("cannot open " + location);
+        SwaggerDeserializationResult result;
+        try {
+            result = read(in);
+        } finally {
+            in.close();
+        }
+        return resolve(result, location, auths);
+    }
+
+    /**
+     * @param content
+     *            the doc read from location already
+     * @param location
+     *            where the relative refs of the doc are resolved from
+     * @return the resolved doc and the messages of the deserializer, the doc
+     *         is null if the content is no swagger v2.0 doc
+     */
+    static SwaggerDeserializationResult read(byte[] content, String location, List<AuthorizationValue> auths)
+            throws IOException {
+        return resolve(read(new ByteArrayInputStream(content)), location, auths);
+    }
+
+    private static SwaggerDeserializationResult resolve(SwaggerDeserializationResult result, String location,
+            List<AuthorizationValue> auths) {
+        if (null != result.getSwagger()) {
+            result.setSwagger(new SwaggerResolver(result.getSwagger(), auths, location).resolve());
+        }
+        return result;
+    }
+
+    /**
+     * @return the doc without its refs resolved and the messages of the
+     *         deserializer, the doc is null if the stream has no swagger doc
+     */
+    static SwaggerDeserializationResult read(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in);
+        if (isGzip(buffered)) buffered = new BufferedInputStream(new GZIPInputStream(buffered));
+        JsonParser parser = factory(buffered).createParser(buffered);
+        try {
+            if (JsonToken.START_OBJECT != parser.nextToken()) {
+                return new SwaggerDeserializationResult().message("the api-doc is not an object");
+            }
+            return new Deserializer().root(parser);
+        } finally {
+            parser.close();
+        }
+    }
+
+    /**
+     * @return the value at the current token as a tree, null and skipped if
+     *         it is not an object
+     */
+    private static ObjectNode object(JsonParser parser) throws IOException {
+        if (JsonToken.START_OBJECT != parser.getCurrentToken()) {
+            parser.skipChildren();
+            return null;
+        }
+        JsonNode node = parser.readValueAsTree();
+        return node instanceof ObjectNode ? (ObjectNode) node : null;
+    }
+
+    private static boolean isGzip(BufferedInputStream in) throws IOException {
+        in.mark(2);
+        try {
+            return 0x1f == in.read() && 0x8b == in.read();
+        } finally {
+            in.reset();
+        }
+    }
+
+    /**
+     * @return the json factory if the doc starts with an object, the yaml one
+     *         otherwise
+     */
+    private static JsonFactory factory(BufferedInputStream in) throws IOException {
+        in.mark(1024);
+        try {
+            for (int i = 0; i < 1024; i++) {
+                int c = in.read();
+                if (-1 == c) break;
+                // byte order mark of utf-8
+                if (0xEF == c || 0xBB == c || 0xBF == c || Character.isWhitespace(c)) continue;
+                return '{' == c ? Json.mapper().getFactory() : Yaml.mapper().getFactory();
+            }
+            return Yaml.mapper().getFactory();
+        } finally {
+            in.reset();
+        }
+    }
+
+    private static InputStream open(String location, List<AuthorizationValue> auths) throws IOException {
+        String lower = location.toLowerCase();
+        if (lower.startsWith("http:") || lower.startsWith("https:")) {
+            return connect(location, auths).getInputStream();
+        }
+        File file = localFile(location);
+        if (null != file) return map(file);
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (null == loader) loader = StreamingSpecReader.class.getClassLoader();
+        return loader.getResourceAsStream(location.startsWith("/") ? location.substring(1) : location);
+    }
+
+    /**
+     * @return the file of a local location, null if it is not a file
+     */
+    static File localFile(String location) {
+        File file = new File(location.startsWith("file:") ? location.substring("file:".length()) : location);
+        return file.isFile() ? file : null;
+    }
+
+    /**
+     * @return the bytes of the file mapped in memory, read without being
+     *         copied into a buffer first
+     */
+    private static InputStream map(File file) throws IOException {
+        RandomAccessFile in = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = in.getChannel();
+            // the mapping stays valid once the file is closed
+            return new ByteBufferBackedInputStream(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } finally {
+            in.close();
+        }
+    }
+
+    private static URLConnection connect(String location, List<AuthorizationValue> auths) throws IOException {
+        StringBuilder url = new StringBuilder(location);
+        if (null != auths) {
+            for (AuthorizationValue auth : auths) {
+                if ("query".equals(auth.getType())) {
+                    url.append(-1 == url.indexOf("?") ? '?' : '&')
+                            .append(URLEncoder.encode(auth.getKeyName(), "UTF-8")).append('=')
+                            .append(URLEncoder.encode(auth.getValue(), "UTF-8"));
+                }
+            }
+        }
+        URLConnection connection = new URL(url.toString()).openConnection();
+        connection.setRequestProperty("Accept", "application/json, application/yaml, */*");
+        if (null != auths) {
+            for (AuthorizationValue auth : auths) {
+                if ("header".equals(auth.getType())) {
+                    connection.setRequestProperty(auth.getKeyName(), auth.getValue());
+                }
+            }
+        }
+        return connection;
+    }
+
+    /**
+     * turns each section read as a small tree into its models, the same way
+     * the swagger parser turns the whole tree
+     */
+    private static final class Deserializer extends SwaggerDeserializer {
+
+        private final ParseResult result = new ParseResult();
+        private final Map<String, Path> paths = new LinkedHashMap<String, Path>();
+        private final Map<String, Model> definitions = new LinkedHashMap<String, Model>();
+        private final Map<String, Parameter> parameters = new LinkedHashMap<String, Parameter>();
+        private final Map<String, Response> responses = new LinkedHashMap<String, Response>();
+
+        SwaggerDeserializationResult root(JsonParser parser) throws IOException {
+            // the small root fields, read by the deserializer as a whole
+            ObjectNode rest = Json.mapper().createObjectNode();
+            while (JsonToken.FIELD_NAME == parser.nextToken()) {
+                String name = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if ("paths".equals(name) && JsonToken.START_OBJECT == token) {
+                    paths(parser);
+                    rest.putObject(name);
+                } else if ("definitions".equals(name) && JsonToken.START_OBJECT == token) {
+                    definitions(parser);
+                } else if ("parameters".equals(name) && JsonToken.START_OBJECT == token) {
+                    parameters(parser);
+                } else if ("responses".equals(name) && JsonToken.START_OBJECT == token) {
+                    responses(parser);
+                } else {
+                    rest.set(name, parser.<JsonNode> readValueAsTree());
+                }
+            }
+            SwaggerDeserializationResult deserialization = new SwaggerDeserializationResult();
+            if (null == rest.get("swagger")) {
+                return deserialization.message("attribute swagger is missing");
+            }
+            Swagger swagger = parseRoot(rest, result);
+            for (Entry<String, Path> entry : paths.entrySet()) {
+                swagger.path(entry.getKey(), entry.getValue());
+            }
+            for (Entry<String, Model> entry : definitions.entrySet()) {
+                swagger.addDefinition(entry.getKey(), entry.getValue());
+            }
+            for (Entry<String, Parameter> entry : parameters.entrySet()) {
+                swagger.addParameter(entry.getKey(), entry.getValue());
+            }
+            for (Entry<String, Response> entry : responses.entrySet()) {
+                swagger.response(entry.getKey(), entry.getValue());
+            }
+            deserialization.setSwagger(swagger);
+            deserialization.setMessages(result.getMessages());
+            return deserialization;
+        }
+
+        private void paths(JsonParser parser) throws IOException {
+            while (JsonToken.FIELD_NAME == parser.nextToken()) {
+                String url = parser.getCurrentName();
+                parser.nextToken();
+                if (url.startsWith("x-")) {
+                    parser.skipChildren();
+                    continue;
+                }
+                ObjectNode node = object(parser);
+                if (null == node) continue;
+                Path path = path(node, "paths." + url, result);
+                if (null != path) paths.put(url, path);
+            }
+        }
+
+        private void definitions(JsonParser parser) throws IOException {
+            while (JsonToken.FIELD_NAME == parser.nextToken()) {
+                String name = parser.getCurrentName();
+                parser.nextToken();
+                ObjectNode node = object(parser);
+                if (null == node) continue;
+                Model model = definition(node, "definitions." + name, result);
+                if (null != model) definitions.put(name, model);
+            }
+        }
+
+        private void parameters(JsonParser parser) throws IOException {
+            while (JsonToken.FIELD_NAME == parser.nextToken()) {
+                String name = parser.getCurrentName();
+                parser.nextToken();
+                ObjectNode node = object(parser);
+                if (null == node) continue;
+                Parameter parameter = parameter(node, "parameters", result);
+                if (null != parameter) parameters.put(name, parameter);
+            }
+        }
+
+        private void responses(JsonParser parser) throws IOException {
+            while (JsonToken.FIELD_NAME == parser.nextToken()) {
+                String code = parser.getCurrentName();
+                parser.nextToken();
+                ObjectNode node = object(parser);
+                if (null == node) continue;
+                Response response = response(node, "responses", result);
+                if (null != response) responses.put(code, response);
+            }
+        }
+
+    }
+
+}
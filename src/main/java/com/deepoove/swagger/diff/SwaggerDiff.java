@@ -1,12 +1,23 @@
 package com.deepoove.swagger.diff;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.deepoove.swagger.diff.compare.CompatibilityCheck;
+import com.deepoove.swagger.diff.compare.DefinitionDiff;
+import com.deepoove.swagger.diff.compare.DefinitionDiffCache;
+import com.deepoove.swagger.diff.compare.PreparedSpec;
 import com.deepoove.swagger.diff.compare.SpecificationDiff;
+import com.deepoove.swagger.diff.model.BreakingChange;
 import com.deepoove.swagger.diff.model.ChangedEndpoint;
 import com.deepoove.swagger.diff.model.Endpoint;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -15,6 +26,8 @@ import io.swagger.models.Swagger;
 import io.swagger.models.auth.AuthorizationValue;
 import io.swagger.parser.SwaggerCompatConverter;
 import io.swagger.parser.SwaggerParser;
+import io.swagger.parser.SwaggerResolver;
+import io.swagger.parser.util.SwaggerDeserializationResult;
 
 public class SwaggerDiff {
 
@@ -22,12 +35,12 @@ public class SwaggerDiff {
 
     private static Logger logger = LoggerFactory.getLogger(SwaggerDiff.class);
 
-    private Swagger oldSpecSwagger;
-    private Swagger newSpecSwagger;
+    private PreparedSpec oldSpec;
+    private PreparedSpec newSpec;
+    private SpecificationDiff specificationDiff;
 
     private List<Endpoint> newEndpoints;
     private List<Endpoint> missingEndpoints;
-    private List<ChangedEndpoint> changedEndpoints;
 
     /**
      * compare two swagger 1.x doc
@@ -62,53 +75,372 @@ public class SwaggerDiff {
      *            new Swagger specification document in v2.0 format as a JsonNode
      */
     public static SwaggerDiff compareV2(JsonNode oldSpec, JsonNode newSpec) {
-        return new SwaggerDiff(oldSpec, newSpec).compare();
+        return compare(prepareV2(oldSpec), prepareV2(newSpec));
     }
 
     public static SwaggerDiff compare(String oldSpec, String newSpec,
             List<AuthorizationValue> auths, String version) {
-        return new SwaggerDiff(oldSpec, newSpec, auths, version).compare();
+        return compare(prepare(oldSpec, auths, version), prepare(newSpec, auths, version));
     }
 
     /**
+     * compare two swagger doc, reading the old and new doc at the same time
+     * 
      * @param oldSpec
+     *            old api-doc location:Json or Http
      * @param newSpec
+     *            new api-doc location:Json or Http
+     * @param auths
+     * @param version
+     * @param executor
+     *            runs the reading of each doc and the comparison of the
+     *            paths, must be able to run two tasks concurrently
+     */
+    public static SwaggerDiff compare(String oldSpec, String newSpec,
+            List<AuthorizationValue> auths, String version, Executor executor) {
+        List<PreparedSpec> specs = prepareAll(Arrays.asList(oldSpec, newSpec), auths, version, executor);
+        return compare(specs.get(0), specs.get(1), executor);
+    }
+
+    /**
+     * compare one old doc with each of the new docs, the old doc is read once
+     * and the pairs are compared at the same time
+     * 
+     * @param oldSpec
+     *            old api-doc location:Json or Http
+     * @param newSpecs
+     *            new api-doc locations:Json or Http
+     * @param auths
+     * @param version
+     * @param executor
+     *            runs the reading of each doc and the comparison of each
+     *            pair, null to run them in the calling thread
+     * @return one diff for each new doc, in the same order
+     */
+    public static List<SwaggerDiff> compareAll(String oldSpec, List<String> newSpecs,
+            List<AuthorizationValue> auths, String version, Executor executor) {
+        List<String> locations = new ArrayList<String>(newSpecs.size() + 1);
+        locations.add(oldSpec);
+        locations.addAll(newSpecs);
+        List<PreparedSpec> specs = prepareAll(locations, auths, version, executor);
+        return compareAll(specs.get(0), specs.subList(1, specs.size()), executor);
+    }
+
+    /**
+     * compare one prepared old doc with each of the new docs, the diffs of the
+     * definitions are shared by the pairs
+     * 
+     * @param executor
+     *            runs the comparison of each pair, null to compare them in
+     *            the calling thread
+     * @return one diff for each new doc, in the same order
+     */
+    public static List<SwaggerDiff> compareAll(final PreparedSpec oldSpec,
+            List<PreparedSpec> newSpecs, Executor executor) {
+        DefinitionDiffCache cache = new DefinitionDiffCache();
+        List<Callable<SwaggerDiff>> tasks = new ArrayList<Callable<SwaggerDiff>>(newSpecs.size());
+        for (PreparedSpec newSpec : newSpecs) {
+            tasks.add(compareTask(oldSpec, newSpec, cache));
+        }
+        return runAll(tasks, executor);
+    }
+
+    /**
+     * compare each version of a doc with the next one: v1 to v2, v2 to v3 ...
+     * 
+     * @param specs
+     *            api-doc locations:Json or Http, from the oldest version
      * @param auths
      * @param version
+     * @param executor
+     *            runs the reading of each doc and the comparison of each
+     *            pair, null to run them in the calling thread
+     * @return one diff less than the docs
+     */
+    public static List<SwaggerDiff> compareChain(List<String> specs,
+            List<AuthorizationValue> auths, String version, Executor executor) {
+        return compareChain(prepareAll(specs, auths, version, executor), executor);
+    }
+
+    /**
+     * compare each version of a prepared doc with the next one, the diffs of
+     * the definitions are shared by the pairs
+     * 
+     * @param executor
+     *            runs the comparison of each pair, null to compare them in
+     *            the calling thread
+     * @return one diff less than the docs
+     */
+    public static List<SwaggerDiff> compareChain(List<PreparedSpec> specs, Executor executor) {
+        DefinitionDiffCache cache = new DefinitionDiffCache();
+        List<Callable<SwaggerDiff>> tasks = new ArrayList<Callable<SwaggerDiff>>();
+        for (int i = 1; i < specs.size(); i++) {
+            tasks.add(compareTask(specs.get(i - 1), specs.get(i), cache));
+        }
+        return runAll(tasks, executor);
+    }
+
+    /**
+     * compare two parsed swagger doc
+     */
+    public static SwaggerDiff compare(Swagger oldSpec, Swagger newSpec) {
+        return compare(PreparedSpec.of(oldSpec), PreparedSpec.of(newSpec));
+    }
+
+    /**
+     * compare two prepared swagger doc, a prepared doc can be compared with
+     * any number of other docs without being read again
+     */
+    public static SwaggerDiff compare(PreparedSpec oldSpec, PreparedSpec newSpec) {
+        return compare(oldSpec, newSpec, null);
+    }
+
+    /**
+     * @param executor
+     *            runs the comparison of the paths, null to compare them in
+     *            the calling thread
+     */
+    public static SwaggerDiff compare(PreparedSpec oldSpec, PreparedSpec newSpec,
+            Executor executor) {
+        return new SwaggerDiff(oldSpec, newSpec).compare(executor, new DefinitionDiffCache());
+    }
+
+    /**
+     * compare two prepared swagger doc on demand: the added and removed
+     * endpoints are found at once, each shared path is compared the first
+     * time the changed endpoints reach it and the definitions the first time
+     * they are asked for
+     */
+    public static SwaggerDiff compareLazy(PreparedSpec oldSpec, PreparedSpec newSpec) {
+        return new SwaggerDiff(oldSpec, newSpec).update(SpecificationDiff.lazy(oldSpec, newSpec));
+    }
+
+    /**
+     * compare the old doc of an earlier diff with a new doc, only the paths
+     * and operations changed since the new doc of the earlier diff are
+     * compared again
+     * 
+     * @param previous
+     *            earlier diff of the same old doc
+     */
+    public static SwaggerDiff compare(SwaggerDiff previous, PreparedSpec newSpec) {
+        return compare(previous, newSpec, null);
+    }
+
+    /**
+     * @param executor
+     *            runs the comparison of the paths, null to compare them in
+     *            the calling thread
      */
-    private SwaggerDiff(String oldSpec, String newSpec, List<AuthorizationValue> auths,
+    public static SwaggerDiff compare(SwaggerDiff previous, PreparedSpec newSpec, Executor executor) {
+        SwaggerDiff diff = new SwaggerDiff(previous.oldSpec, newSpec);
+        return diff.update(SpecificationDiff.diff(previous.specificationDiff, newSpec, executor));
+    }
+
+    /**
+     * compare two prepared swagger doc until the first change which breaks
+     * the clients of the old doc, the rest of the docs is not compared
+     * 
+     * @return the first breaking change, null if the new doc is compatible
+     */
+    public static BreakingChange firstBreakingChange(PreparedSpec oldSpec, PreparedSpec newSpec) {
+        return CompatibilityCheck.firstBreakingChange(oldSpec, newSpec);
+    }
+
+    /**
+     * read a swagger 1.x doc to compare with other docs
+     * 
+     * @param spec
+     *            api-doc location:Json or Http
+     */
+    public static PreparedSpec prepareV1(String spec) {
+        return prepare(spec, null, null);
+    }
+
+    /**
+     * read a swagger v2.0 doc to compare with other docs
+     * 
+     * @param spec
+     *            api-doc location:Json or Http
+     */
+    public static PreparedSpec prepareV2(String spec) {
+        return prepare(spec, null, SWAGGER_VERSION_V2);
+    }
+
+    /**
+     * read a swagger v2.0 doc to compare with other docs
+     * 
+     * @param spec
+     *            Swagger specification document in v2.0 format as a JsonNode
+     */
+    public static PreparedSpec prepareV2(JsonNode spec) {
+        Swagger swagger = new SwaggerParser().read(spec, true);
+        if (null == swagger) { throw new RuntimeException("cannot read api-doc from spec."); }
+        return PreparedSpec.of(swagger);
+    }
+
+    /**
+     * read a swagger doc to compare with other docs, a local v2.0 doc, plain
+     * or compressed with gzip (.gz), is mapped in memory and read by
+     * {@link #prepareStreaming(String, List)}, which gives the same models as
+     * the swagger parser
+     * 
+     * @param spec
+     *            api-doc location:Json or Http
+     * @param auths
+     * @param version
+     */
+    public static PreparedSpec prepare(String spec, List<AuthorizationValue> auths,
             String version) {
-        if (SWAGGER_VERSION_V2.equals(version)) {
-            SwaggerParser swaggerParser = new SwaggerParser();
-            oldSpecSwagger = swaggerParser.read(oldSpec, auths, true);
-            newSpecSwagger = swaggerParser.read(newSpec, auths, true);
+        Swagger swagger = null;
+        if (SWAGGER_VERSION_V2.equals(version)
+                && (null != StreamingSpecReader.localFile(spec) || spec.toLowerCase().endsWith(".gz"))) {
+            // the swagger parser copies a file into a string and does not read gzip
+            return prepareStreaming(spec, auths);
+        } else if (SWAGGER_VERSION_V2.equals(version)) {
+            swagger = new SwaggerParser().read(spec, auths, true);
         } else {
-            SwaggerCompatConverter swaggerCompatConverter = new SwaggerCompatConverter();
             try {
-                oldSpecSwagger = swaggerCompatConverter.read(oldSpec, auths);
-                newSpecSwagger = swaggerCompatConverter.read(newSpec, auths);
+                swagger = new SwaggerCompatConverter().read(spec, auths);
             } catch (IOException e) {
                 logger.error("cannot read api-doc from spec[version_v1.x]", e);
-                return;
+                throw new RuntimeException("cannot read api-doc from spec.", e);
+            }
+        }
+        if (null == swagger) { throw new RuntimeException("cannot read api-doc from spec."); }
+        return PreparedSpec.of(swagger);
+    }
+
+    /**
+     * read a swagger v2.0 doc to compare with other docs with a streaming
+     * parser, the doc is never held as a whole tree, each path and definition
+     * is read and turned into its model on its own. The messages of the
+     * parser are logged as warnings.
+     *
+     * @param spec
+     *            api-doc location:Json or Yaml, plain or gzip, Http, file or
+     *            classpath
+     * @param auths
+     */
+    public static PreparedSpec prepareStreaming(String spec, List<AuthorizationValue> auths) {
+        try {
+            return prepared(spec, StreamingSpecReader.read(spec, auths));
+        } catch (IOException e) {
+            logger.error("cannot read api-doc from spec[streaming]", e);
+            throw new RuntimeException("cannot read api-doc from spec.", e);
+        }
+    }
+
+    /**
+     * read a swagger v2.0 doc already read from its location with the swagger
+     * parser, as {@link #prepare(String, List, String)} reads it, only a doc
+     * compressed with gzip, which the swagger parser cannot read, goes
+     * through the streaming parser
+     */
+    static PreparedSpec prepareContent(String spec, byte[] content, List<AuthorizationValue> auths) {
+        try {
+            if (content.length > 1 && (byte) 0x1f == content[0] && (byte) 0x8b == content[1]) {
+                return prepared(spec, StreamingSpecReader.read(content, spec, auths));
+            }
+            SwaggerDeserializationResult result = new SwaggerParser().readWithInfo(new String(content, "UTF-8"));
+            if (null != result.getSwagger()) {
+                // the relative refs are resolved from the location
+                result.setSwagger(new SwaggerResolver(result.getSwagger(), auths, spec).resolve());
             }
+            return prepared(spec, result);
+        } catch (IOException e) {
+            logger.error("cannot read api-doc from spec[content]", e);
+            throw new RuntimeException("cannot read api-doc from spec.", e);
         }
-        if (null == oldSpecSwagger || null == newSpecSwagger) { throw new RuntimeException(
-                "cannot read api-doc from spec."); }
     }
 
-    private SwaggerDiff(JsonNode oldSpec, JsonNode newSpec) {
-        SwaggerParser swaggerParser = new SwaggerParser();
-        oldSpecSwagger = swaggerParser.read(oldSpec, true);
-        newSpecSwagger = swaggerParser.read(newSpec, true);
-        if (null == oldSpecSwagger || null == newSpecSwagger) { throw new RuntimeException(
-            "cannot read api-doc from spec."); }
+    private static PreparedSpec prepared(String spec, SwaggerDeserializationResult result) {
+        if (null != result.getMessages()) {
+            for (String message : result.getMessages()) {
+                logger.warn("api-doc " + spec + ": " + message);
+            }
+        }
+        if (null == result.getSwagger()) { throw new RuntimeException("cannot read api-doc from spec."); }
+        return PreparedSpec.of(result.getSwagger());
     }
 
-    private SwaggerDiff compare() {
-    	SpecificationDiff diff = SpecificationDiff.diff(oldSpecSwagger, newSpecSwagger);
+    /**
+     * read swagger docs to compare with other docs
+     * 
+     * @param executor
+     *            runs the reading of each doc, null to read them in the
+     *            calling thread
+     * @return one prepared doc for each location, in the same order
+     */
+    public static List<PreparedSpec> prepareAll(List<String> specs,
+            final List<AuthorizationValue> auths, final String version, Executor executor) {
+        List<Callable<PreparedSpec>> tasks = new ArrayList<Callable<PreparedSpec>>(specs.size());
+        for (final String spec : specs) {
+            tasks.add(new Callable<PreparedSpec>() {
+                public PreparedSpec call() {
+                    return prepare(spec, auths, version);
+                }
+            });
+        }
+        return runAll(tasks, executor);
+    }
+
+    private static Callable<SwaggerDiff> compareTask(final PreparedSpec oldSpec,
+            final PreparedSpec newSpec, final DefinitionDiffCache cache) {
+        return new Callable<SwaggerDiff>() {
+            public SwaggerDiff call() {
+                return new SwaggerDiff(oldSpec, newSpec).compare(null, cache);
+            }
+        };
+    }
+
+    static <T> List<T> runAll(List<Callable<T>> tasks, Executor executor) {
+        List<FutureTask<T>> futures = new ArrayList<FutureTask<T>>(tasks.size());
+        for (Callable<T> task : tasks) {
+            FutureTask<T> future = new FutureTask<T>(task);
+            futures.add(future);
+            if (null == executor) {
+                future.run();
+            } else {
+                executor.execute(future);
+            }
+        }
+        List<T> result = new ArrayList<T>(futures.size());
+        try {
+            for (FutureTask<T> future : futures) {
+                result.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            for (FutureTask<T> future : futures) {
+                future.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("interrupted while comparing api-doc.", e);
+        } catch (ExecutionException e) {
+            for (FutureTask<T> future : futures) {
+                future.cancel(true);
+            }
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new RuntimeException("cannot compare api-doc.", cause);
+        }
+        return result;
+    }
+
+    private SwaggerDiff(PreparedSpec oldSpec, PreparedSpec newSpec) {
+        this.oldSpec = oldSpec;
+        this.newSpec = newSpec;
+    }
+
+    private SwaggerDiff compare(Executor executor, DefinitionDiffCache cache) {
+        return update(SpecificationDiff.diff(oldSpec, newSpec, executor, cache));
+    }
+
+    private SwaggerDiff update(SpecificationDiff diff) {
+        this.specificationDiff = diff;
         this.newEndpoints = diff.getNewEndpoints();
         this.missingEndpoints = diff.getMissingEndpoints();
-        this.changedEndpoints = diff.getChangedEndpoints();
         return this;
     }
 
@@ -120,15 +452,74 @@ public class SwaggerDiff {
         return missingEndpoints;
     }
 
+    /**
+     * @return the changed endpoints, a lazy diff compares all of its shared
+     *         paths on the first call
+     */
     public List<ChangedEndpoint> getChangedEndpoints() {
-        return changedEndpoints;
+        return specificationDiff.getChangedEndpoints();
+    }
+
+    /**
+     * @return the changed endpoints, a lazy diff compares each shared path
+     *         when the iteration reaches it and keeps its diff
+     */
+    public Iterable<ChangedEndpoint> changedEndpoints() {
+        return specificationDiff.changedEndpoints();
+    }
+
+    /**
+     * @return the definitions added, removed and renamed, a renamed
+     *         definition is neither added nor removed
+     */
+    public DefinitionDiff getDefinitionDiff() {
+        return specificationDiff.getDefinitionDiff();
+    }
+
+    /**
+     * @return the changes which break the clients of the old doc
+     */
+    public List<BreakingChange> getBreakingChanges() {
+        return CompatibilityCheck.check(missingEndpoints, getChangedEndpoints()).getBreakingChanges();
+    }
+
+    /**
+     * @return count of the shared operations skipped because they have the
+     *         same fingerprint in both docs
+     */
+    public int getSkippedOperations() {
+        return specificationDiff.getSkippedOperations();
+    }
+
+    public int getComparedOperations() {
+        return specificationDiff.getComparedOperations();
+    }
+
+    /**
+     * @return count of the shared operations which took the result of the
+     *         earlier diff
+     */
+    public int getReusedOperations() {
+        return specificationDiff.getReusedOperations();
+    }
+
+    /**
+     * @return count of the definition pairs skipped because they have the
+     *         same fingerprint in both docs
+     */
+    public int getSkippedDefinitions() {
+        return specificationDiff.getSkippedDefinitions();
+    }
+
+    public int getComparedDefinitions() {
+        return specificationDiff.getComparedDefinitions();
     }
 
     public String getOldVersion() {
-        return oldSpecSwagger.getInfo().getVersion();
+        return oldSpec.getSwagger().getInfo().getVersion();
     }
 
     public String getNewVersion() {
-        return newSpecSwagger.getInfo().getVersion();
+        return newSpec.getSwagger().getInfo().getVersion();
     }
 }
@@ -1,16 +1,36 @@
 package com.deepoove.swagger.diff.cli;
 
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+import com.deepoove.swagger.diff.PreparedSpecCache;
 import com.deepoove.swagger.diff.SwaggerDiff;
+import com.deepoove.swagger.diff.compare.PreparedSpec;
+import com.deepoove.swagger.diff.model.BreakingChange;
 import com.deepoove.swagger.diff.output.HtmlRender;
+import com.deepoove.swagger.diff.output.JsonRender;
 import com.deepoove.swagger.diff.output.MarkdownRender;
+import com.deepoove.swagger.diff.output.StreamingRender;
 
 /**
  * $java -jar swagger-diff.jar -old http://www.petstore.com/swagger.json \n
  *  -new http://www.petstore.com/swagger_new.json \n
  *  -v 2.0 \n
  *  -output-mode markdown \n
+ * <p>
+ * -new can be repeated or be a directory of api-docs to compare the old doc
+ * with each of them, with -chain the docs are compared one after another
  *  
  * @author Sayi
  * @version 
@@ -18,25 +38,51 @@ import com.deepoove.swagger.diff.output.MarkdownRender;
 public class CLI {
     
     private static final String OUTPUT_MODE_MARKDOWN = "markdown";
+    private static final String OUTPUT_MODE_HTML = "html";
+    private static final String OUTPUT_MODE_NDJSON = "ndjson";
+    /**
+     * exit status of -fail-on-breaking when a breaking change is found
+     */
+    public static final int EXIT_BREAKING = 1;
+    
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
     
-    @Parameter(names = "-old", description = "old api-doc location:Json file path or Http url", required = true, order = 0)
+    @Parameter(names = "-old", description = "old api-doc location:Json file path or Http url, required unless -serve", order = 0)
     private String oldSpec;
     
-    @Parameter(names = "-new", description = "new api-doc location:Json file path or Http url", required = true, order = 1)
-    private String newSpec;
+    @Parameter(names = "-new", description = "new api-doc location:Json file path, Http url or directory, can be repeated, required unless -serve", order = 1)
+    private List<String> newSpecs = new ArrayList<String>();
+    
+    @Parameter(names = "-chain", description = "compare each api-doc with the next one: old to the first new, the first new to the second ...", order = 4)
+    private boolean chain;
     
     @Parameter(names = "-v", description = "swagger version:1.0 or 2.0", validateWith=  RegexValidator.class, order = 2)
     @Regex("(2\\.0|1\\.0)")
     private String version = SwaggerDiff.SWAGGER_VERSION_V2;
     
-    @Parameter(names = "-output-mode", description = "render mode: markdown or html", validateWith=  RegexValidator.class, order = 3)
-    @Regex("(markdown|html)")
+    @Parameter(names = "-output-mode", description = "render mode: markdown, html, json or ndjson", validateWith=  RegexValidator.class, order = 3)
+    @Regex("(markdown|html|json|ndjson)")
     private String outputMode = OUTPUT_MODE_MARKDOWN;
     
-    @Parameter(names = "--help", help = true, order = 5)
+    @Parameter(names = "-serve", description = "listen on this local port and compare api-docs on request instead", order = 5)
+    private Integer port;
+    
+    @Parameter(names = "-serve-root", description = "directory of the api-docs compared by -serve, the locations of the requests are relative to it", order = 6)
+    private String serveRoot = ".";
+    
+    @Parameter(names = "-cache-size", description = "count of parsed api-docs kept in memory by -serve", order = 7)
+    private int cacheSize = 64;
+    
+    @Parameter(names = "-cache-dir", description = "directory to save parsed api-docs in and read them from on later runs", order = 8)
+    private String cacheDir;
+    
+    @Parameter(names = "-fail-on-breaking", description = "render nothing, stop at the first change which breaks the clients of the old api-doc and exit with status 1", order = 9)
+    private boolean failOnBreaking;
+    
+    @Parameter(names = "--help", help = true, order = 10)
     private boolean help;
     
-    @Parameter(names = "--version", description = "swagger-diff tool version", help = true, order = 6)
+    @Parameter(names = "--version", description = "swagger-diff tool version", help = true, order = 11)
     private boolean v;
     
     public static void main(String[] args) {
@@ -45,36 +91,174 @@ public class CLI {
             .addObject(cli)
             .build();
         jCommander.parse(args);
-        cli.run(jCommander);
+        int status = cli.execute(jCommander);
+        if (0 != status){
+            System.exit(status);
+        }
     }
 
     public void run(JCommander jCommander) {
+        execute(jCommander);
+    }
+
+    /**
+     * run the command like {@link #run(JCommander)}
+     * 
+     * @return exit status, {@link #EXIT_BREAKING} if -fail-on-breaking found
+     *         a breaking change
+     */
+    public int execute(JCommander jCommander) {
         if (help){
             jCommander.setProgramName("java -jar swagger-diff.jar");
             jCommander.usage();
-            return;
+            return 0;
         }
         if (v){
             JCommander.getConsole().println("1.2.0");
-            return;
+            return 0;
         }
         
-        SwaggerDiff diff = null;
-        if (SwaggerDiff.SWAGGER_VERSION_V2.equals(version)){
-            diff = SwaggerDiff.compareV2(oldSpec, newSpec);
-        }else {
-            diff = SwaggerDiff.compareV1(oldSpec, newSpec);
+        if (null != port){
+            serve();
+            return 0;
+        }
+        if (null == oldSpec || newSpecs.isEmpty()){
+            throw new ParameterException("The following options are required: -old, -new");
+        }
+        if (failOnBreaking){
+            return check();
         }
         
-        String render = null;
+        List<SwaggerDiff> diffs = compare();
+        
+        StreamingRender render = null;
         if (OUTPUT_MODE_MARKDOWN.equals(outputMode)){
-            render = new MarkdownRender().render(diff);
-        }else{
+            render = new MarkdownRender();
+        }else if (OUTPUT_MODE_HTML.equals(outputMode)){
             render = new HtmlRender("Changelog",
-                    "http://deepoove.com/swagger-diff/stylesheets/demo.css")
-                    .render(diff);
+                    "http://deepoove.com/swagger-diff/stylesheets/demo.css");
+        }else{
+            render = new JsonRender(OUTPUT_MODE_NDJSON.equals(outputMode));
+        }
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out));
+        try {
+            for (SwaggerDiff diff : diffs) {
+                render.render(diff, out);
+                // every ndjson record ends its line already
+                if (!OUTPUT_MODE_NDJSON.equals(outputMode)) out.append(LINE_SEPARATOR);
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException("cannot write the difference.", e);
+        }
+        return 0;
+    }
+
+    private void serve() {
+        try {
+            DiffServer server = new DiffServer(port, cacheSize,
+                    null == cacheDir ? null : new File(cacheDir), new File(serveRoot));
+            server.start();
+            JCommander.getConsole().println("swagger-diff listening on http://localhost:"
+                    + server.getPort() + DiffServer.CONTEXT);
+        } catch (IOException e) {
+            throw new IllegalStateException("cannot listen on port " + port + ".", e);
         }
-        JCommander.getConsole().println(render);
+    }
+
+    /**
+     * compare each pair of docs until the first breaking change
+     */
+    private int check() {
+        List<String> locations = locations();
+        ExecutorService executor = newExecutor(locations);
+        try {
+            List<PreparedSpec> specs = prepareAll(locations, executor);
+            for (int i = 1; i < specs.size(); i++) {
+                int old = chain ? i - 1 : 0;
+                BreakingChange change = SwaggerDiff.firstBreakingChange(specs.get(old), specs.get(i));
+                if (null != change){
+                    JCommander.getConsole().println("breaking change from " + locations.get(old)
+                            + " to " + locations.get(i) + ": " + change);
+                    return EXIT_BREAKING;
+                }
+            }
+            return 0;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<SwaggerDiff> compare() {
+        List<String> locations = locations();
+        if (2 == locations.size() && null == cacheDir){
+            return Arrays.asList(SwaggerDiff.compare(oldSpec, locations.get(1), null, compareVersion()));
+        }
+        ExecutorService executor = newExecutor(locations);
+        try {
+            List<PreparedSpec> specs = prepareAll(locations, executor);
+            if (chain){
+                return SwaggerDiff.compareChain(specs, executor);
+            }
+            return SwaggerDiff.compareAll(specs.get(0), specs.subList(1, specs.size()), executor);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<String> locations() {
+        List<String> locations = new ArrayList<String>();
+        locations.add(oldSpec);
+        locations.addAll(expand(newSpecs));
+        return locations;
+    }
+
+    private String compareVersion() {
+        return SwaggerDiff.SWAGGER_VERSION_V2.equals(version) ? version : null;
+    }
+
+    private static ExecutorService newExecutor(List<String> locations) {
+        return Executors.newFixedThreadPool(
+                Math.min(locations.size(), Runtime.getRuntime().availableProcessors()));
+    }
+
+    private List<PreparedSpec> prepareAll(List<String> locations, ExecutorService executor) {
+        return null == cacheDir
+                ? SwaggerDiff.prepareAll(locations, null, compareVersion(), executor)
+                : new PreparedSpecCache(cacheSize, new File(cacheDir))
+                        .prepareAll(locations, null, compareVersion(), executor);
+    }
+
+    private static boolean isSpec(String name) {
+        return name.endsWith(".json") || name.endsWith(".yaml") || name.endsWith(".yml");
+    }
+
+    /**
+     * replace each directory by its json and yaml files, plain or gzip, sorted
+     * by name
+     */
+    private static List<String> expand(List<String> specs) {
+        List<String> locations = new ArrayList<String>();
+        for (String spec : specs) {
+            File dir = new File(spec);
+            if (!dir.isDirectory()){
+                locations.add(spec);
+                continue;
+            }
+            File[] files = dir.listFiles();
+            if (null == files) continue;
+            Arrays.sort(files);
+            for (File file : files) {
+                String name = file.getName().toLowerCase();
+                if (file.isFile() && isSpec(name.endsWith(".gz") ? name.substring(0, name.length() - 3) : name)){
+                    locations.add(file.getPath());
+                }
+            }
+        }
+        if (locations.isEmpty()){
+            throw new IllegalArgumentException("no new api-doc found in " + specs);
+        }
+        return locations;
     }
 
     public String getOldSpec() {
@@ -82,7 +266,15 @@ public class CLI {
     }
 
     public String getNewSpec() {
-        return newSpec;
+        return newSpecs.isEmpty() ? null : newSpecs.get(0);
+    }
+
+    public List<String> getNewSpecs() {
+        return newSpecs;
+    }
+
+    public boolean isChain() {
+        return chain;
     }
 
     public String getVersion() {
@@ -93,5 +285,17 @@ public class CLI {
         return outputMode;
     }
 
+    public boolean isFailOnBreaking() {
+        return failOnBreaking;
+    }
+
+    public Integer getPort() {
+        return port;
+    }
+
+    public String getCacheDir() {
+        return cacheDir;
+    }
+
 
 }
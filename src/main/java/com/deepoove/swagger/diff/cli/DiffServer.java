@@ -0,0 +1,249 @@
+package com.deepoove.swagger.diff.cli;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.deepoove.swagger.diff.PreparedSpecCache;
+import com.deepoove.swagger.diff.SwaggerDiff;
+import com.deepoove.swagger.diff.compare.PreparedSpec;
+import com.deepoove.swagger.diff.output.HtmlRender;
+import com.deepoove.swagger.diff.output.JsonRender;
+import com.deepoove.swagger.diff.output.MarkdownRender;
+import com.deepoove.swagger.diff.output.StreamingRender;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * keeps a warm jvm to compare api-docs on request, listening on a local port
+ * <p>
+ * GET /diff?old=...&amp;new=...&amp;v=2.0&amp;output-mode=markdown returns the
+ * rendered difference, the parameters are the ones of {@link CLI} and can also
+ * be posted as a form. The locations are files under the root directory of
+ * the server, relative to it: urls, file: locations and paths out of the root
+ * are refused, so that a client cannot make the server read any file or url.
+ * Parsed docs are kept in a {@link PreparedSpecCache}, and the last diff of
+ * each old doc is kept so that the next new doc compared with it is only
+ * compared where it changed.
+ *
+ * @author Sayi
+ * @version
+ */
+public class DiffServer {
+
+    public static final String CONTEXT = "/diff";
+
+    private static Logger logger = LoggerFactory.getLogger(DiffServer.class);
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final PreparedSpecCache cache;
+    private final File root;
+    // last diff by old doc, the cache returns the same doc for the same content
+    private final Map<PreparedSpec, SwaggerDiff> lastDiffs;
+
+    /**
+     * @param port
+     *            local port to listen on, 0 for any free port
+     * @param cacheSize
+     *            count of parsed docs kept
+     */
+    public DiffServer(int port, int cacheSize) throws IOException {
+        this(port, cacheSize, null);
+    }
+
+    /**
+     * @param port
+     *            local port to listen on, 0 for any free port
+     * @param cacheSize
+     *            count of parsed docs kept in memory
+     * @param cacheDir
+     *            where the parsed docs are saved, null to keep them in memory
+     *            only
+     */
+    public DiffServer(int port, int cacheSize, File cacheDir) throws IOException {
+        this(port, cacheSize, cacheDir, new File("."));
+    }
+
+    /**
+     * @param port
+     *            local port to listen on, 0 for any free port
+     * @param cacheSize
+     *            count of parsed docs kept in memory
+     * @param cacheDir
+     *            where the parsed docs are saved, null to keep them in memory
+     *            only
+     * @param root
+     *            directory of the docs which can be compared, the locations
+     *            of the requests are relative to it
+     */
+    public DiffServer(int port, int cacheSize, File cacheDir, File root) throws IOException {
+        this.root = root.getCanonicalFile();
+        this.cache = new PreparedSpecCache(cacheSize, cacheDir);
+        final int maxDiffs = cacheSize;
+        this.lastDiffs = new LinkedHashMap<PreparedSpec, SwaggerDiff>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PreparedSpec, SwaggerDiff> eldest) {
+                return size() > maxDiffs;
+            }
+        };
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getByName("localhost"), port), 0);
+        this.executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        server.setExecutor(executor);
+        server.createContext(CONTEXT, new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    diff(exchange);
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public PreparedSpecCache getCache() {
+        return cache;
+    }
+
+    private void diff(HttpExchange exchange) throws IOException {
+        Map<String, String> params = params(exchange.getRequestURI().getRawQuery());
+        if ("POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+            params.putAll(params(readBody(exchange)));
+        }
+        String oldSpec = params.get("old");
+        String newSpec = params.get("new");
+        String version = params.containsKey("v") ? params.get("v") : SwaggerDiff.SWAGGER_VERSION_V2;
+        String outputMode = params.containsKey("output-mode") ? params.get("output-mode") : "markdown";
+        if (null == oldSpec || null == newSpec) {
+            error(exchange, 400, "old and new api-doc locations are required.");
+            return;
+        }
+        if (!version.matches("2\\.0|1\\.0") || !outputMode.matches("markdown|html|json|ndjson")) {
+            error(exchange, 400, "unknown swagger version or render mode.");
+            return;
+        }
+        String oldFile = locate(oldSpec);
+        String newFile = locate(newSpec);
+        if (null == oldFile || null == newFile) {
+            logger.warn("refused to compare " + oldSpec + " with " + newSpec + ", out of " + root);
+            error(exchange, 403, "api-doc locations should be files under the root directory.");
+            return;
+        }
+        String compareVersion = SwaggerDiff.SWAGGER_VERSION_V2.equals(version) ? version : null;
+
+        SwaggerDiff diff;
+        try {
+            PreparedSpec oldPrepared = cache.prepare(oldFile, null, compareVersion);
+            PreparedSpec newPrepared = cache.prepare(newFile, null, compareVersion);
+            SwaggerDiff previous;
+            synchronized (lastDiffs) {
+                previous = lastDiffs.get(oldPrepared);
+            }
+            diff = null == previous ? SwaggerDiff.compare(oldPrepared, newPrepared)
+                    : SwaggerDiff.compare(previous, newPrepared);
+            synchronized (lastDiffs) {
+                lastDiffs.put(oldPrepared, diff);
+            }
+        } catch (RuntimeException e) {
+            logger.error("cannot compare " + oldFile + " with " + newFile, e);
+            // the details stay in the log, they may tell what the server can read
+            error(exchange, 422, "cannot compare api-docs.");
+            return;
+        }
+
+        StreamingRender render;
+        if ("markdown".equals(outputMode)) {
+            render = new MarkdownRender();
+            exchange.getResponseHeaders().set("Content-Type", "text/markdown; charset=utf-8");
+        } else if ("html".equals(outputMode)) {
+            render = new HtmlRender("Changelog",
+                    "http://deepoove.com/swagger-diff/stylesheets/demo.css");
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+        } else if ("json".equals(outputMode)) {
+            render = new JsonRender();
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        } else {
+            render = new JsonRender(true);
+            exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson; charset=utf-8");
+        }
+        exchange.sendResponseHeaders(200, 0);
+        Writer out = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), "UTF-8"));
+        render.render(diff, out);
+        out.flush();
+    }
+
+    /**
+     * @return path of the file under the root, null for a url, a file:
+     *         location or a path out of the root
+     */
+    private String locate(String location) throws IOException {
+        // http:, file:, jar: and the drives of windows
+        if (-1 != location.indexOf(':')) return null;
+        File file = new File(root, location).getCanonicalFile();
+        if (!file.getPath().startsWith(root.getPath() + File.separator)) return null;
+        return file.getPath();
+    }
+
+    private static void error(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = message.getBytes("UTF-8");
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        Reader in = new InputStreamReader(exchange.getRequestBody(), "UTF-8");
+        StringBuilder body = new StringBuilder();
+        char[] buffer = new char[1024];
+        int n;
+        while (-1 != (n = in.read(buffer))) {
+            body.append(buffer, 0, n);
+        }
+        return body.toString();
+    }
+
+    private static Map<String, String> params(String query) throws UnsupportedEncodingException {
+        Map<String, String> params = new HashMap<String, String>();
+        if (null == query) return params;
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            params.put(URLDecoder.decode(pair.substring(0, eq), "UTF-8"),
+                    URLDecoder.decode(pair.substring(eq + 1), "UTF-8"));
+        }
+        return params;
+    }
+
+}
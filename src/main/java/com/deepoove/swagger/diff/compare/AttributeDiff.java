@@ -0,0 +1,124 @@
+package com.deepoove.swagger.diff.compare;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.deepoove.swagger.diff.model.ChangedAttribute;
+
+import io.swagger.models.properties.AbstractNumericProperty;
+import io.swagger.models.properties.ArrayProperty;
+import io.swagger.models.properties.DateProperty;
+import io.swagger.models.properties.DateTimeProperty;
+import io.swagger.models.properties.DoubleProperty;
+import io.swagger.models.properties.FloatProperty;
+import io.swagger.models.properties.IntegerProperty;
+import io.swagger.models.properties.LongProperty;
+import io.swagger.models.properties.MapProperty;
+import io.swagger.models.properties.Property;
+import io.swagger.models.properties.StringProperty;
+import io.swagger.models.properties.UUIDProperty;
+
+/**
+ * compare the attributes of two properties found at the same place: type,
+ * format, enum and constraints
+ * <p>
+ * Each kind of property is compared by the getters of its own class, the
+ * nested properties of arrays, maps and objects are compared by
+ * {@link ModelDiff}.
+ *
+ * @author Sayi
+ * @version
+ */
+final class AttributeDiff {
+
+	private final List<ChangedAttribute> changed = new ArrayList<ChangedAttribute>(2);
+
+	private AttributeDiff() {}
+
+	/**
+	 * @return the changed attributes, only the type and the format if the
+	 *         type changed
+	 */
+	static List<ChangedAttribute> diff(Property left, Property right) {
+		if (!equals(left.getType(), right.getType())) {
+			List<ChangedAttribute> changed = new ArrayList<ChangedAttribute>(2);
+			changed.add(new ChangedAttribute("type", left.getType(), right.getType()));
+			if (!equals(left.getFormat(), right.getFormat())) {
+				changed.add(new ChangedAttribute("format", left.getFormat(), right.getFormat()));
+			}
+			return changed;
+		}
+		AttributeDiff diff = new AttributeDiff();
+		diff.compare("format", left.getFormat(), right.getFormat());
+		if (left instanceof StringProperty && right instanceof StringProperty) {
+			StringProperty l = (StringProperty) left;
+			StringProperty r = (StringProperty) right;
+			diff.compare("enum", l.getEnum(), r.getEnum());
+			diff.compare("minLength", l.getMinLength(), r.getMinLength());
+			diff.compare("maxLength", l.getMaxLength(), r.getMaxLength());
+			diff.compare("pattern", l.getPattern(), r.getPattern());
+		} else if (left instanceof AbstractNumericProperty && right instanceof AbstractNumericProperty) {
+			diff.numeric((AbstractNumericProperty) left, (AbstractNumericProperty) right);
+		} else if (left instanceof ArrayProperty && right instanceof ArrayProperty) {
+			ArrayProperty l = (ArrayProperty) left;
+			ArrayProperty r = (ArrayProperty) right;
+			diff.compare("minItems", l.getMinItems(), r.getMinItems());
+			diff.compare("maxItems", l.getMaxItems(), r.getMaxItems());
+			diff.compare("uniqueItems", l.getUniqueItems(), r.getUniqueItems());
+		} else if (left instanceof MapProperty && right instanceof MapProperty) {
+			MapProperty l = (MapProperty) left;
+			MapProperty r = (MapProperty) right;
+			diff.compare("minProperties", l.getMinProperties(), r.getMinProperties());
+			diff.compare("maxProperties", l.getMaxProperties(), r.getMaxProperties());
+		} else if (left instanceof DateProperty && right instanceof DateProperty) {
+			diff.compare("enum", ((DateProperty) left).getEnum(), ((DateProperty) right).getEnum());
+		} else if (left instanceof DateTimeProperty && right instanceof DateTimeProperty) {
+			diff.compare("enum", ((DateTimeProperty) left).getEnum(), ((DateTimeProperty) right).getEnum());
+		} else if (left instanceof UUIDProperty && right instanceof UUIDProperty) {
+			UUIDProperty l = (UUIDProperty) left;
+			UUIDProperty r = (UUIDProperty) right;
+			diff.compare("enum", l.getEnum(), r.getEnum());
+			diff.compare("minLength", l.getMinLength(), r.getMinLength());
+			diff.compare("maxLength", l.getMaxLength(), r.getMaxLength());
+			diff.compare("pattern", l.getPattern(), r.getPattern());
+		}
+		return diff.changed.isEmpty() ? Collections.<ChangedAttribute> emptyList() : diff.changed;
+	}
+
+	private void numeric(AbstractNumericProperty left, AbstractNumericProperty right) {
+		compareNumber("minimum", left.getMinimum(), right.getMinimum());
+		compareNumber("maximum", left.getMaximum(), right.getMaximum());
+		compare("exclusiveMinimum", left.getExclusiveMinimum(), right.getExclusiveMinimum());
+		compare("exclusiveMaximum", left.getExclusiveMaximum(), right.getExclusiveMaximum());
+		compareNumber("multipleOf", left.getMultipleOf(), right.getMultipleOf());
+		if (left instanceof IntegerProperty && right instanceof IntegerProperty) {
+			compare("enum", ((IntegerProperty) left).getEnum(), ((IntegerProperty) right).getEnum());
+		} else if (left instanceof LongProperty && right instanceof LongProperty) {
+			compare("enum", ((LongProperty) left).getEnum(), ((LongProperty) right).getEnum());
+		} else if (left instanceof DoubleProperty && right instanceof DoubleProperty) {
+			compare("enum", ((DoubleProperty) left).getEnum(), ((DoubleProperty) right).getEnum());
+		} else if (left instanceof FloatProperty && right instanceof FloatProperty) {
+			compare("enum", ((FloatProperty) left).getEnum(), ((FloatProperty) right).getEnum());
+		}
+	}
+
+	private void compare(String name, Object left, Object right) {
+		if (!equals(left, right)) {
+			changed.add(new ChangedAttribute(name, left, right));
+		}
+	}
+
+	private void compareNumber(String name, BigDecimal left, BigDecimal right) {
+		// 1 and 1.0 are the same bound
+		if (null == left ? null != right : null == right || 0 != left.compareTo(right)) {
+			changed.add(new ChangedAttribute(name, left, right));
+		}
+	}
+
+	private static boolean equals(Object left, Object right) {
+		return null == left ? null == right : left.equals(right);
+	}
+
+}
@@ -0,0 +1,264 @@
+package com.deepoove.swagger.diff.compare;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import com.deepoove.swagger.diff.model.BreakingChange;
+import com.deepoove.swagger.diff.model.ChangedAttribute;
+import com.deepoove.swagger.diff.model.ChangedEndpoint;
+import com.deepoove.swagger.diff.model.ChangedOperation;
+import com.deepoove.swagger.diff.model.ChangedParameter;
+import com.deepoove.swagger.diff.model.ChangedResponse;
+import com.deepoove.swagger.diff.model.ElProperty;
+import com.deepoove.swagger.diff.model.Endpoint;
+
+import io.swagger.models.HttpMethod;
+import io.swagger.models.parameters.Parameter;
+import io.swagger.models.parameters.SerializableParameter;
+
+/**
+ * find the changes which break the clients of the old doc
+ * <p>
+ * The rules are: an endpoint removed, a parameter added as required or made
+ * required, a parameter type narrowed, a 2xx response removed, a property or
+ * a header removed from a response, a property of a request body narrowed and a property or a header
+ * of a response widened. Added endpoints, parameters and response properties
+ * are compatible.
+ * <p>
+ * A property is narrowed when the new one rejects a value the old one
+ * accepts, by its type, format, enum or constraints: a maxLength decreased or
+ * an enum value removed in a request body breaks the clients sending it. A
+ * property of a response is widened when the old one rejects a value the new
+ * one may return, the same rule read from the new doc to the old one.
+ * <p>
+ * A fail fast check stops at the first breaking change. Run by
+ * {@link #firstBreakingChange(PreparedSpec, PreparedSpec)} it also stops
+ * comparing the docs: the removed endpoints are looked for before any
+ * operation is compared, and the operations are compared one after another
+ * until one breaks.
+ *
+ * @author Sayi
+ * @version
+ */
+public class CompatibilityCheck {
+
+	public static final String REMOVED_ENDPOINT = "removed-endpoint";
+	public static final String REQUIRED_PARAMETER = "required-parameter";
+	public static final String NARROWED_PARAMETER = "narrowed-parameter";
+	public static final String REMOVED_SUCCESS_RESPONSE = "removed-success-response";
+	public static final String REMOVED_RESPONSE_PROPERTY = "removed-response-property";
+	public static final String REMOVED_RESPONSE_HEADER = "removed-response-header";
+	public static final String NARROWED_REQUEST_PROPERTY = "narrowed-request-property";
+	public static final String WIDENED_RESPONSE_PROPERTY = "widened-response-property";
+	public static final String WIDENED_RESPONSE_HEADER = "widened-response-header";
+
+	// format changes which accept every value of the old format
+	private static final Set<String> WIDER_FORMATS = new HashSet<String>(
+			Arrays.asList("int32>int64", "float>double"));
+	// constraints which reject more values as they grow, or as they shrink
+	private static final Set<String> LOWER_BOUNDS = new HashSet<String>(
+			Arrays.asList("minLength", "minItems", "minProperties", "minimum"));
+	private static final Set<String> UPPER_BOUNDS = new HashSet<String>(
+			Arrays.asList("maxLength", "maxItems", "maxProperties", "maximum"));
+	// constraints which reject values once set to true
+	private static final Set<String> FLAGS = new HashSet<String>(
+			Arrays.asList("exclusiveMinimum", "exclusiveMaximum", "uniqueItems"));
+
+	private final boolean failFast;
+	private final List<BreakingChange> breakingChanges = new ArrayList<BreakingChange>();
+
+	private CompatibilityCheck(boolean failFast) {
+		this.failFast = failFast;
+	}
+
+	/**
+	 * check every change of a diff
+	 *
+	 * @param missingEndpoints
+	 * @param changedEndpoints
+	 */
+	public static CompatibilityCheck check(List<Endpoint> missingEndpoints,
+			List<ChangedEndpoint> changedEndpoints) {
+		CompatibilityCheck check = new CompatibilityCheck(false);
+		for (Endpoint endpoint : missingEndpoints) {
+			check.endpoint(endpoint.getPathUrl(), endpoint.getMethod());
+		}
+		for (ChangedEndpoint changedEndpoint : changedEndpoints) {
+			for (Entry<HttpMethod, ChangedOperation> entry : changedEndpoint.getChangedOperations()
+					.entrySet()) {
+				check.operation(changedEndpoint.getPathUrl(), entry.getKey(), entry.getValue());
+			}
+		}
+		return check;
+	}
+
+	/**
+	 * compare two docs until the first breaking change
+	 *
+	 * @return the first breaking change, null if the new doc is compatible
+	 */
+	public static BreakingChange firstBreakingChange(PreparedSpec oldSpec, PreparedSpec newSpec) {
+		CompatibilityCheck check = new CompatibilityCheck(true);
+		SpecificationDiff.check(oldSpec, newSpec, check);
+		return check.breakingChanges.isEmpty() ? null : check.breakingChanges.get(0);
+	}
+
+	/**
+	 * @return true if a fail fast check found a breaking change, nothing is
+	 *         left to check
+	 */
+	boolean isDone() {
+		return failFast && !breakingChanges.isEmpty();
+	}
+
+	void endpoint(String pathUrl, HttpMethod method) {
+		add(REMOVED_ENDPOINT, pathUrl, method, null, "removed");
+	}
+
+	void operation(String pathUrl, HttpMethod method, ChangedOperation operation) {
+		for (Parameter param : operation.getAddParameters()) {
+			if (param.getRequired()) {
+				add(REQUIRED_PARAMETER, pathUrl, method, param.getName(),
+						"add required parameter " + param.getName());
+			}
+		}
+		for (ChangedParameter param : operation.getChangedParameter()) {
+			Parameter right = param.getRightParameter();
+			if (param.isChangeRequired() && right.getRequired()) {
+				add(REQUIRED_PARAMETER, pathUrl, method, right.getName(),
+						"parameter " + right.getName() + " change into required");
+			}
+			if (param.isChangeType() && isNarrowed((SerializableParameter) param.getLeftParameter(),
+					(SerializableParameter) right)) {
+				add(NARROWED_PARAMETER, pathUrl, method, right.getName(),
+						"parameter " + right.getName() + " narrow type");
+			}
+			for (ElProperty prop : param.getChanged()) {
+				if (isNarrowed(prop, false)) {
+					add(NARROWED_REQUEST_PROPERTY, pathUrl, method, prop.getEl(),
+							"narrow " + prop.getEl());
+				}
+			}
+		}
+		for (String code : operation.getMissingResponses().keySet()) {
+			// the clients expect it, a removed error response is compatible
+			if (code.startsWith("2")) {
+				add(REMOVED_SUCCESS_RESPONSE, pathUrl, method, code, "delete response " + code);
+			}
+		}
+		for (ChangedResponse response : operation.getChangedResponses()) {
+			for (ElProperty header : response.getMissingHeaders()) {
+				add(REMOVED_RESPONSE_HEADER, pathUrl, method, header.getEl(),
+						"delete header " + header.getEl() + " in " + response.getCode());
+			}
+			for (ElProperty header : response.getChangedHeaders()) {
+				if (isNarrowed(header, true)) {
+					add(WIDENED_RESPONSE_HEADER, pathUrl, method, header.getEl(),
+							"widen header " + header.getEl() + " in " + response.getCode());
+				}
+			}
+			for (ElProperty prop : response.getMissingProps()) {
+				add(REMOVED_RESPONSE_PROPERTY, pathUrl, method, prop.getEl(),
+						"delete " + prop.getEl() + " in " + response.getCode());
+			}
+			for (ElProperty prop : response.getChangedProps()) {
+				if (isNarrowed(prop, true)) {
+					add(WIDENED_RESPONSE_PROPERTY, pathUrl, method, prop.getEl(),
+							"widen " + prop.getEl() + " in " + response.getCode());
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param reverse
+	 *            read the change from the new property to the old one, true
+	 *            for a response
+	 * @return true if one changed attribute rejects a value accepted before
+	 */
+	private static boolean isNarrowed(ElProperty prop, boolean reverse) {
+		for (ChangedAttribute attribute : prop.getChangedAttributes()) {
+			Object from = reverse ? attribute.getNewValue() : attribute.getOldValue();
+			Object to = reverse ? attribute.getOldValue() : attribute.getNewValue();
+			if (isNarrowed(attribute.getName(), from, to)) return true;
+		}
+		return false;
+	}
+
+	private static boolean isNarrowed(String name, Object from, Object to) {
+		if ("type".equals(name)) {
+			// an integer is a number
+			return !("integer".equals(from) && "number".equals(to));
+		}
+		if ("format".equals(name)) {
+			return null != to && !WIDER_FORMATS.contains(from + ">" + to);
+		}
+		if ("enum".equals(name)) {
+			return null != to && (null == from || !((List<?>) to).containsAll((List<?>) from));
+		}
+		if (LOWER_BOUNDS.contains(name)) {
+			return null != to && (null == from || compare(to, from) > 0);
+		}
+		if (UPPER_BOUNDS.contains(name)) {
+			return null != to && (null == from || compare(to, from) < 0);
+		}
+		if (FLAGS.contains(name)) {
+			return Boolean.TRUE.equals(to) && !Boolean.TRUE.equals(from);
+		}
+		// a pattern or a multipleOf set or changed
+		return null != to;
+	}
+
+	/**
+	 * compare two bounds, an Integer or a BigDecimal
+	 */
+	private static int compare(Object left, Object right) {
+		return new BigDecimal(left.toString()).compareTo(new BigDecimal(right.toString()));
+	}
+
+	/**
+	 * @return true if the new parameter rejects a value of the old one
+	 */
+	private static boolean isNarrowed(SerializableParameter left, SerializableParameter right) {
+		if (!equals(left.getType(), right.getType())) {
+			// an integer is a number
+			return !("integer".equals(left.getType()) && "number".equals(right.getType()));
+		}
+		if (!equals(left.getFormat(), right.getFormat()) && null != right.getFormat()
+				&& !WIDER_FORMATS.contains(left.getFormat() + ">" + right.getFormat())) {
+			return true;
+		}
+		List<String> rightEnum = right.getEnum();
+		return null != rightEnum && (null == left.getEnum() || !rightEnum.containsAll(left.getEnum()));
+	}
+
+	private static boolean equals(Object left, Object right) {
+		return null == left ? null == right : left.equals(right);
+	}
+
+	private void add(String rule, String pathUrl, HttpMethod method, String el, String message) {
+		if (isDone()) return;
+		BreakingChange change = new BreakingChange();
+		change.setRule(rule);
+		change.setPathUrl(pathUrl);
+		change.setMethod(method);
+		change.setEl(el);
+		change.setMessage(message);
+		breakingChanges.add(change);
+	}
+
+	public boolean isBreaking() {
+		return !breakingChanges.isEmpty();
+	}
+
+	public List<BreakingChange> getBreakingChanges() {
+		return Collections.unmodifiableList(breakingChanges);
+	}
+
+}
@@ -0,0 +1,220 @@
+package com.deepoove.swagger.diff.compare;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import io.swagger.models.Model;
+import io.swagger.models.properties.Property;
+import io.swagger.models.properties.RefProperty;
+
+/**
+ * compare the definitions of two docs by name, then pair the remaining
+ * definitions which look alike as renamed
+ * <p>
+ * A definition is seen as the set of its properties, name and type. The
+ * remaining definitions are paired when their sets are similar enough, the
+ * candidates are found by min-hashing the sets into buckets so that only
+ * the definitions sharing a bucket are measured, not every old definition
+ * against every new one. The most similar pairs are taken first.
+ *
+ * @author Sayi
+ * @version
+ */
+public class DefinitionDiff {
+
+	// jaccard similarity of the property sets of a renamed definition
+	static final double THRESHOLD = 0.5;
+
+	private static final int BANDS = 16;
+	private static final int ROWS = 2;
+	private static final int[] SEEDS = seeds(BANDS * ROWS);
+
+	private Map<String, Model> increased;
+	private Map<String, Model> missing;
+	private Map<String, String> renamed;
+
+	private DefinitionDiff() {}
+
+	public static DefinitionDiff diff(Map<String, Model> oldDefinitions, Map<String, Model> newDefinitions) {
+		MapKeyDiff<String, Model> keyDiff = MapKeyDiff.diff(oldDefinitions, newDefinitions);
+		DefinitionDiff instance = new DefinitionDiff();
+		instance.increased = copy(keyDiff.getIncreased());
+		instance.missing = copy(keyDiff.getMissing());
+		instance.renamed = new LinkedHashMap<String, String>();
+		if (instance.increased.isEmpty() || instance.missing.isEmpty()) return instance;
+
+		List<String> oldNames = new ArrayList<String>(instance.missing.keySet());
+		List<String> newNames = new ArrayList<String>(instance.increased.keySet());
+		List<Set<String>> oldSets = features(oldNames, instance.missing);
+		List<Set<String>> newSets = features(newNames, instance.increased);
+
+		// new definitions by band and band hash
+		Map<Long, List<Integer>> buckets = new HashMap<Long, List<Integer>>();
+		for (int j = 0; j < newNames.size(); j++) {
+			if (newSets.get(j).isEmpty()) continue;
+			int[] signature = signature(newSets.get(j));
+			for (int band = 0; band < BANDS; band++) {
+				Long key = bucket(signature, band);
+				List<Integer> bucket = buckets.get(key);
+				if (null == bucket) {
+					bucket = new ArrayList<Integer>(1);
+					buckets.put(key, bucket);
+				}
+				bucket.add(j);
+			}
+		}
+		List<Candidate> candidates = new ArrayList<Candidate>();
+		for (int i = 0; i < oldNames.size(); i++) {
+			if (oldSets.get(i).isEmpty()) continue;
+			int[] signature = signature(oldSets.get(i));
+			Set<Integer> measured = new HashSet<Integer>();
+			for (int band = 0; band < BANDS; band++) {
+				List<Integer> bucket = buckets.get(bucket(signature, band));
+				if (null == bucket) continue;
+				for (Integer j : bucket) {
+					if (!measured.add(j)) continue;
+					double similarity = jaccard(oldSets.get(i), newSets.get(j));
+					if (similarity >= THRESHOLD) candidates.add(new Candidate(i, j, similarity));
+				}
+			}
+		}
+		Collections.sort(candidates, new Comparator<Candidate>() {
+			public int compare(Candidate a, Candidate b) {
+				if (a.similarity != b.similarity) return a.similarity > b.similarity ? -1 : 1;
+				return a.oldIndex != b.oldIndex ? a.oldIndex - b.oldIndex : a.newIndex - b.newIndex;
+			}
+		});
+		boolean[] oldTaken = new boolean[oldNames.size()];
+		boolean[] newTaken = new boolean[newNames.size()];
+		Map<String, String> pairs = new HashMap<String, String>();
+		for (Candidate candidate : candidates) {
+			if (oldTaken[candidate.oldIndex] || newTaken[candidate.newIndex]) continue;
+			oldTaken[candidate.oldIndex] = true;
+			newTaken[candidate.newIndex] = true;
+			pairs.put(oldNames.get(candidate.oldIndex), newNames.get(candidate.newIndex));
+		}
+		// in the order of the old doc
+		for (String oldName : oldNames) {
+			String newName = pairs.get(oldName);
+			if (null == newName) continue;
+			instance.renamed.put(oldName, newName);
+			instance.missing.remove(oldName);
+			instance.increased.remove(newName);
+		}
+		return instance;
+	}
+
+	private static List<Set<String>> features(List<String> names, Map<String, Model> definitions) {
+		List<Set<String>> sets = new ArrayList<Set<String>>(names.size());
+		for (String name : names) {
+			Map<String, Property> properties = definitions.get(name).getProperties();
+			Set<String> set = new HashSet<String>();
+			if (null != properties) {
+				for (Entry<String, Property> entry : properties.entrySet()) {
+					Property property = entry.getValue();
+					// a referred definition may be renamed too
+					String type = property instanceof RefProperty ? "ref" : property.getType();
+					set.add(entry.getKey() + ":" + type);
+				}
+			}
+			sets.add(set);
+		}
+		return sets;
+	}
+
+	private static int[] signature(Set<String> set) {
+		int[] signature = new int[SEEDS.length];
+		for (int k = 0; k < signature.length; k++) {
+			signature[k] = Integer.MAX_VALUE;
+		}
+		for (String feature : set) {
+			int hash = feature.hashCode();
+			for (int k = 0; k < signature.length; k++) {
+				int h = mix(hash ^ SEEDS[k]);
+				if (h < signature[k]) signature[k] = h;
+			}
+		}
+		return signature;
+	}
+
+	private static Long bucket(int[] signature, int band) {
+		long key = band;
+		for (int row = 0; row < ROWS; row++) {
+			key = key * 31 + signature[band * ROWS + row];
+		}
+		return key;
+	}
+
+	private static double jaccard(Set<String> a, Set<String> b) {
+		int shared = 0;
+		for (String feature : a) {
+			if (b.contains(feature)) shared++;
+		}
+		return (double) shared / (a.size() + b.size() - shared);
+	}
+
+	private static int mix(int h) {
+		// murmur3 finalizer
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		h ^= h >>> 16;
+		return h;
+	}
+
+	private static int[] seeds(int count) {
+		int[] seeds = new int[count];
+		for (int k = 0; k < count; k++) {
+			seeds[k] = mix(0x9e3779b9 * (k + 1));
+		}
+		return seeds;
+	}
+
+	private static Map<String, Model> copy(Map<String, Model> definitions) {
+		return null == definitions ? new LinkedHashMap<String, Model>()
+				: new LinkedHashMap<String, Model>(definitions);
+	}
+
+	/**
+	 * @return the definitions only found in the new doc
+	 */
+	public Map<String, Model> getIncreased() {
+		return increased;
+	}
+
+	/**
+	 * @return the definitions only found in the old doc
+	 */
+	public Map<String, Model> getMissing() {
+		return missing;
+	}
+
+	/**
+	 * @return new name by old name of the renamed definitions
+	 */
+	public Map<String, String> getRenamed() {
+		return renamed;
+	}
+
+	private static final class Candidate {
+		final int oldIndex;
+		final int newIndex;
+		final double similarity;
+
+		Candidate(int oldIndex, int newIndex, double similarity) {
+			this.oldIndex = oldIndex;
+			this.newIndex = newIndex;
+			this.similarity = similarity;
+		}
+	}
+
+}
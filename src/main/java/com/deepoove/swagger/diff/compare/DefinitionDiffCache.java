@@ -0,0 +1,214 @@
+package com.deepoove.swagger.diff.compare;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * cache of the diff between two definitions, keyed by the ids of the
+ * definitions in the {@link DefinitionIndex} of each doc
+ * <p>
+ * The cached diff is relative to the definition: the el of each property
+ * starts at the definition, {@link ModelDiff} re-bases it onto the property
+ * which refers to the definition. One cache is shared by all the comparisons
+ * of one run, it must not be shared between runs with other definitions.
+ * <p>
+ * The cache returned by {@link #forSpecs(PreparedSpec, PreparedSpec)} is
+ * keyed by the {@link SpecFingerprint} of the definitions instead, read by id
+ * from {@link PreparedSpec#definitionFingerprints()}, it can be
+ * shared between runs with other docs and skips the definitions with the
+ * same fingerprint. The diffs shared this way are bounded, the least recently
+ * used ones are dropped first, so a long running process comparing many docs
+ * with the same cache keeps a bounded number of them. They are allocated by
+ * the first call to forSpecs, a cache used for one comparison of two
+ * definitions only keeps a plain map.
+ *
+ * @author Sayi
+ * @version
+ */
+public class DefinitionDiffCache {
+
+	// count of the diffs keyed by fingerprint kept by default
+	public static final int DEFAULT_MAX_SIZE = 10000;
+
+	// every access locks the map
+	private final Map<Object, ModelDiff> diffs;
+	private final int maxSize;
+	// diffs keyed by fingerprint, shared by the caches returned by forSpecs,
+	// null until the first call
+	private Map<Object, ModelDiff> fingerprintDiffs;
+	// fingerprint of each definition by id, null unless returned by forSpecs
+	private final String[] oldFingerprints;
+	private final String[] newFingerprints;
+
+	private final AtomicInteger skipped = new AtomicInteger();
+	private final AtomicInteger compared = new AtomicInteger();
+
+	public DefinitionDiffCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * @param maxSize
+	 *            count of the diffs keyed by fingerprint kept for the caches
+	 *            returned by {@link #forSpecs(PreparedSpec, PreparedSpec)}
+	 */
+	public DefinitionDiffCache(int maxSize) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("cache size must be positive.");
+		}
+		this.diffs = new HashMap<Object, ModelDiff>();
+		this.maxSize = maxSize;
+		this.oldFingerprints = null;
+		this.newFingerprints = null;
+	}
+
+	private DefinitionDiffCache(Map<Object, ModelDiff> fingerprintDiffs,
+			String[] oldFingerprints, String[] newFingerprints) {
+		this.diffs = fingerprintDiffs;
+		this.maxSize = 0;
+		this.fingerprintDiffs = fingerprintDiffs;
+		this.oldFingerprints = oldFingerprints;
+		this.newFingerprints = newFingerprints;
+	}
+
+	/**
+	 * @return a cache for the comparison of two docs, it shares the diffs of
+	 *         the definitions with the same fingerprints with every cache
+	 *         returned by this method
+	 */
+	public DefinitionDiffCache forSpecs(PreparedSpec oldSpec, PreparedSpec newSpec) {
+		return new DefinitionDiffCache(fingerprintDiffs(), oldSpec.definitionFingerprints(),
+				newSpec.definitionFingerprints());
+	}
+
+	private synchronized Map<Object, ModelDiff> fingerprintDiffs() {
+		if (null == fingerprintDiffs) {
+			fingerprintDiffs = new LruMap(maxSize);
+		}
+		return fingerprintDiffs;
+	}
+
+	/**
+	 * @param leftId
+	 *            id of the old definition, {@link DefinitionIndex#NONE} for an
+	 *            undefined ref
+	 */
+	ModelDiff get(int leftId, int rightId) {
+		Object key = key(leftId, rightId);
+		synchronized (diffs) {
+			return diffs.get(key);
+		}
+	}
+
+	void put(int leftId, int rightId, ModelDiff diff) {
+		Object key = key(leftId, rightId);
+		synchronized (diffs) {
+			if (!diffs.containsKey(key)) diffs.put(key, diff);
+		}
+	}
+
+	/**
+	 * @return true if both definitions have the same fingerprint, so they do
+	 *         not need to be compared
+	 */
+	boolean skip(int leftId, int rightId) {
+		if (null == oldFingerprints) return false;
+		if (!SpecFingerprint.same(fingerprint(oldFingerprints, leftId),
+				fingerprint(newFingerprints, rightId))) {
+			return false;
+		}
+		skipped.incrementAndGet();
+		return true;
+	}
+
+	void countCompared() {
+		compared.incrementAndGet();
+	}
+
+	private Object key(int leftId, int rightId) {
+		if (null == oldFingerprints) return Long.valueOf(((long) leftId << 32) | (rightId & 0xffffffffL));
+		return new FingerprintPair(fingerprint(oldFingerprints, leftId),
+				fingerprint(newFingerprints, rightId));
+	}
+
+	private static String fingerprint(String[] fingerprints, int id) {
+		// an undefined ref compares as a missing definition, whatever its name
+		return DefinitionIndex.NONE == id ? null : fingerprints[id];
+	}
+
+	/**
+	 * @return count of the definition pairs kept, for a cache returned by
+	 *         {@link #forSpecs(PreparedSpec, PreparedSpec)} the ones shared
+	 *         with the other caches
+	 */
+	public int size() {
+		synchronized (diffs) {
+			return diffs.size();
+		}
+	}
+
+	/**
+	 * @return count of the definition pairs skipped because of the same
+	 *         fingerprint
+	 */
+	public int getSkipped() {
+		return skipped.get();
+	}
+
+	/**
+	 * @return count of the definition pairs compared through this cache
+	 */
+	public int getCompared() {
+		return compared.get();
+	}
+
+	/**
+	 * diffs in the order they were last read, the eldest one is dropped once
+	 * the map is full
+	 */
+	private static final class LruMap extends LinkedHashMap<Object, ModelDiff> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int maxSize;
+
+		LruMap(int maxSize) {
+			super(16, 0.75f, true);
+			this.maxSize = maxSize;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Object, ModelDiff> eldest) {
+			return size() > maxSize;
+		}
+	}
+
+	private static final class FingerprintPair {
+
+		private final String left;
+		private final String right;
+
+		FingerprintPair(String left, String right) {
+			this.left = left;
+			this.right = right;
+		}
+
+		@Override
+		public int hashCode() {
+			int result = null == left ? 0 : left.hashCode();
+			return 31 * result + (null == right ? 0 : right.hashCode());
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) return true;
+			if (!(obj instanceof FingerprintPair)) return false;
+			FingerprintPair other = (FingerprintPair) obj;
+			return (null == left ? null == other.left : left.equals(other.left))
+					&& (null == right ? null == other.right : right.equals(other.right));
+		}
+	}
+
+}
@@ -0,0 +1,174 @@
+package com.deepoove.swagger.diff.compare;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import io.swagger.models.Model;
+import io.swagger.models.properties.ArrayProperty;
+import io.swagger.models.properties.MapProperty;
+import io.swagger.models.properties.ObjectProperty;
+import io.swagger.models.properties.Property;
+import io.swagger.models.properties.RefProperty;
+
+/**
+ * the definitions of a doc by integer id, with their properties and the
+ * definitions their properties refer to resolved to ids
+ * <p>
+ * The index is built once for a doc and read by every comparison of it, see
+ * {@link PreparedSpec#getDefinitionIndex()}. Every ref found in the
+ * definitions, also in the items of an array, the values of a map and the
+ * properties of an inline object, is resolved to an id when the index is
+ * built: following it is then a lookup by the identity of the property,
+ * without reading its name. The index is never changed once built.
+ *
+ * @author Sayi
+ * @version
+ */
+public final class DefinitionIndex {
+
+	// id of a ref which names no definition, or of a property which is no ref
+	public static final int NONE = -1;
+
+	private static final DefinitionIndex EMPTY = new DefinitionIndex(Collections.<String, Model> emptyMap());
+
+	private final Map<String, Integer> ids;
+	private final String[] names;
+	private final Model[] models;
+	private final List<Map<String, Property>> properties;
+	// name, property and referred definition id of each property, by position
+	private final String[][] propertyNames;
+	private final Property[][] propertyValues;
+	private final int[][] propertyRefs;
+	// id of each ref property found in the definitions
+	private final Map<Property, Integer> refIds = new IdentityHashMap<Property, Integer>();
+
+	private DefinitionIndex(Map<String, Model> definitions) {
+		int size = definitions.size();
+		ids = new HashMap<String, Integer>(size * 2);
+		names = new String[size];
+		models = new Model[size];
+		properties = new ArrayList<Map<String, Property>>(size);
+		propertyNames = new String[size][];
+		propertyValues = new Property[size][];
+		propertyRefs = new int[size][];
+		int id = 0;
+		for (Entry<String, Model> entry : definitions.entrySet()) {
+			ids.put(entry.getKey(), id);
+			names[id] = entry.getKey();
+			models[id] = entry.getValue();
+			id++;
+		}
+		for (id = 0; id < size; id++) {
+			Map<String, Property> props = null == models[id] ? null : models[id].getProperties();
+			properties.add(props);
+			int count = null == props ? 0 : props.size();
+			propertyNames[id] = new String[count];
+			propertyValues[id] = new Property[count];
+			propertyRefs[id] = new int[count];
+			if (0 == count) continue;
+			int i = 0;
+			for (Entry<String, Property> prop : props.entrySet()) {
+				propertyNames[id][i] = prop.getKey();
+				propertyValues[id][i] = prop.getValue();
+				propertyRefs[id][i] = resolve(prop.getValue());
+				i++;
+			}
+		}
+	}
+
+	/**
+	 * @return id of the definition the property refers to, the refs nested in
+	 *         the property are resolved too
+	 */
+	private int resolve(Property property) {
+		if (property instanceof RefProperty) {
+			int id = id(((RefProperty) property).getSimpleRef());
+			refIds.put(property, id);
+			return id;
+		}
+		if (property instanceof ArrayProperty) {
+			resolve(((ArrayProperty) property).getItems());
+		} else if (property instanceof MapProperty) {
+			resolve(((MapProperty) property).getAdditionalProperties());
+		} else if (property instanceof ObjectProperty && null != ((ObjectProperty) property).getProperties()) {
+			for (Property nested : ((ObjectProperty) property).getProperties().values()) {
+				resolve(nested);
+			}
+		}
+		return NONE;
+	}
+
+	/**
+	 * @param definitions
+	 *            definitions by simple ref, null for none
+	 */
+	public static DefinitionIndex of(Map<String, Model> definitions) {
+		return null == definitions || definitions.isEmpty() ? EMPTY : new DefinitionIndex(definitions);
+	}
+
+	/**
+	 * @return id of the definition, {@link #NONE} if the ref is null or names
+	 *         no definition
+	 */
+	public int id(String ref) {
+		if (null == ref) return NONE;
+		Integer id = ids.get(ref);
+		return null == id ? NONE : id;
+	}
+
+	/**
+	 * @return id of the definition a property refers to, {@link #NONE} if it
+	 *         is no ref or names no definition
+	 */
+	public int ref(Property property) {
+		if (!(property instanceof RefProperty)) return NONE;
+		Integer id = refIds.get(property);
+		// a property out of the definitions, such as the schema of a response
+		return null == id ? id(((RefProperty) property).getSimpleRef()) : id;
+	}
+
+	public int size() {
+		return names.length;
+	}
+
+	public String name(int id) {
+		return names[id];
+	}
+
+	/**
+	 * @return the definition, null for {@link #NONE}
+	 */
+	public Model model(int id) {
+		return NONE == id ? null : models[id];
+	}
+
+	/**
+	 * @return the properties of the definition read when the index was built,
+	 *         null for {@link #NONE} or a definition without properties
+	 */
+	public Map<String, Property> properties(int id) {
+		return NONE == id ? null : properties.get(id);
+	}
+
+	String[] propertyNames(int id) {
+		return propertyNames[id];
+	}
+
+	Property[] propertyValues(int id) {
+		return propertyValues[id];
+	}
+
+	/**
+	 * @return id of the definition each property refers to, by position,
+	 *         {@link #NONE} for a property which is no resolved ref
+	 */
+	int[] propertyRefs(int id) {
+		return propertyRefs[id];
+	}
+
+}
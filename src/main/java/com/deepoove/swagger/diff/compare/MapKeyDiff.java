@@ -1,15 +1,27 @@
 package com.deepoove.swagger.diff.compare;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
 
 /**
  * compare two Maps by key
+ * <p>
+ * Each map is walked once and nothing is copied: the increased and missing
+ * maps are read only views over the keys found on one side only, or the
+ * input map itself when no key is shared. Two sorted maps with the same order
+ * are merged instead of looking up every key in the other map.
+ *
  * @author Sayi
- * @version 
+ * @version
  */
 public class MapKeyDiff<K, V> {
 
@@ -18,12 +30,12 @@ public class MapKeyDiff<K, V> {
 	private List<K> sharedKey;
 
 	private MapKeyDiff() {
-		this.sharedKey = new ArrayList<K>();
 	}
 
 	public static <K, V> MapKeyDiff<K, V> diff(Map<K, V> mapLeft,
 			Map<K, V> mapRight) {
 		MapKeyDiff<K, V> instance = new MapKeyDiff<K, V>();
+		instance.sharedKey = Collections.emptyList();
 		if (null == mapLeft && null == mapRight) return instance;
 		if (null == mapLeft) {
 			instance.increased = mapRight;
@@ -33,21 +45,98 @@ public class MapKeyDiff<K, V> {
 			instance.missing = mapLeft;
 			return instance;
 		}
-		instance.increased = new LinkedHashMap<K, V>(mapRight);
-		instance.missing = new LinkedHashMap<K, V>();
-		for (Entry<K, V> entry : mapLeft.entrySet()) {
-			K leftKey = entry.getKey();
-			V leftValue = entry.getValue();
-			if (mapRight.containsKey(leftKey)) {
-				instance.increased.remove(leftKey);
-				instance.sharedKey.add(leftKey);
-
+		if (mapLeft instanceof SortedMap && mapRight instanceof SortedMap
+				&& sameOrder((SortedMap<K, V>) mapLeft, (SortedMap<K, V>) mapRight)) {
+			return merge(instance, (SortedMap<K, V>) mapLeft, (SortedMap<K, V>) mapRight);
+		}
+		Object[] leftKeys = null;
+		int missingCount = 0;
+		List<K> shared = new ArrayList<K>(Math.min(mapLeft.size(), mapRight.size()));
+		for (K key : mapLeft.keySet()) {
+			if (mapRight.containsKey(key)) {
+				shared.add(key);
 			} else {
-				instance.missing.put(leftKey, leftValue);
+				if (null == leftKeys) leftKeys = new Object[mapLeft.size() - shared.size()];
+				leftKeys[missingCount++] = key;
 			}
+		}
+		Object[] rightKeys = null;
+		int increasedCount = mapRight.size() - shared.size();
+		if (0 != increasedCount && !shared.isEmpty()) {
+			rightKeys = new Object[increasedCount];
+			int i = 0;
+			for (K key : mapRight.keySet()) {
+				if (!mapLeft.containsKey(key)) rightKeys[i++] = key;
+			}
+		}
+		return instance.result(mapLeft, mapRight, shared, leftKeys, missingCount, rightKeys, increasedCount);
+	}
 
+	/**
+	 * walk two maps sorted the same way side by side
+	 */
+	@SuppressWarnings("unchecked")
+	private static <K, V> MapKeyDiff<K, V> merge(MapKeyDiff<K, V> instance, SortedMap<K, V> mapLeft,
+			SortedMap<K, V> mapRight) {
+		Comparator<? super K> comparator = mapLeft.comparator();
+		Object[] leftKeys = new Object[mapLeft.size()];
+		Object[] rightKeys = new Object[mapRight.size()];
+		int missingCount = 0;
+		int increasedCount = 0;
+		List<K> shared = new ArrayList<K>(Math.min(mapLeft.size(), mapRight.size()));
+		Iterator<K> left = mapLeft.keySet().iterator();
+		Iterator<K> right = mapRight.keySet().iterator();
+		boolean hasLeft = left.hasNext();
+		boolean hasRight = right.hasNext();
+		K leftKey = hasLeft ? left.next() : null;
+		K rightKey = hasRight ? right.next() : null;
+		while (hasLeft || hasRight) {
+			int order;
+			if (!hasLeft) {
+				order = 1;
+			} else if (!hasRight) {
+				order = -1;
+			} else {
+				order = null == comparator ? ((Comparable<? super K>) leftKey).compareTo(rightKey)
+						: comparator.compare(leftKey, rightKey);
+			}
+			if (order < 0) {
+				leftKeys[missingCount++] = leftKey;
+			} else if (order > 0) {
+				rightKeys[increasedCount++] = rightKey;
+			} else {
+				shared.add(leftKey);
+			}
+			if (order <= 0) {
+				hasLeft = left.hasNext();
+				leftKey = hasLeft ? left.next() : null;
+			}
+			if (order >= 0) {
+				hasRight = right.hasNext();
+				rightKey = hasRight ? right.next() : null;
+			}
 		}
-		return instance;
+		return instance.result(mapLeft, mapRight, shared, leftKeys, missingCount, rightKeys, increasedCount);
+	}
+
+	private MapKeyDiff<K, V> result(Map<K, V> mapLeft, Map<K, V> mapRight, List<K> shared,
+			Object[] leftKeys, int missingCount, Object[] rightKeys, int increasedCount) {
+		this.sharedKey = shared;
+		this.missing = view(mapLeft, mapRight, shared, leftKeys, missingCount);
+		this.increased = view(mapRight, mapLeft, shared, rightKeys, increasedCount);
+		return this;
+	}
+
+	private static <K, V> Map<K, V> view(Map<K, V> map, Map<K, V> other, List<K> shared, Object[] keys,
+			int count) {
+		if (0 == count) return Collections.emptyMap();
+		if (shared.isEmpty()) return Collections.unmodifiableMap(map);
+		return new KeyView<K, V>(map, other, keys, count);
+	}
+
+	private static <K, V> boolean sameOrder(SortedMap<K, V> mapLeft, SortedMap<K, V> mapRight) {
+		Comparator<? super K> comparator = mapLeft.comparator();
+		return null == comparator ? null == mapRight.comparator() : comparator.equals(mapRight.comparator());
 	}
 
 	public Map<K, V> getIncreased() {
@@ -62,4 +151,71 @@ public class MapKeyDiff<K, V> {
 		return sharedKey;
 	}
 
+	/**
+	 * read only entries of a map for the keys at the first count indexes, in
+	 * their order, none of them is a key of the other map
+	 */
+	private static final class KeyView<K, V> extends AbstractMap<K, V> {
+
+		private final Map<K, V> map;
+		private final Map<K, V> other;
+		private final Object[] keys;
+		private final int count;
+
+		KeyView(Map<K, V> map, Map<K, V> other, Object[] keys, int count) {
+			this.map = map;
+			this.other = other;
+			this.keys = keys;
+			this.count = count;
+		}
+
+		@Override
+		public int size() {
+			return count;
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return map.containsKey(key) && !other.containsKey(key);
+		}
+
+		@Override
+		public V get(Object key) {
+			return other.containsKey(key) ? null : map.get(key);
+		}
+
+		@Override
+		public Set<Entry<K, V>> entrySet() {
+			return new AbstractSet<Entry<K, V>>() {
+				@Override
+				public int size() {
+					return count;
+				}
+
+				@Override
+				public Iterator<Entry<K, V>> iterator() {
+					return new Iterator<Entry<K, V>>() {
+						private int index;
+
+						public boolean hasNext() {
+							return index < count;
+						}
+
+						@SuppressWarnings("unchecked")
+						public Entry<K, V> next() {
+							if (index >= count) throw new NoSuchElementException();
+							K key = (K) keys[index++];
+							return new SimpleImmutableEntry<K, V>(key, map.get(key));
+						}
+
+						public void remove() {
+							throw new UnsupportedOperationException();
+						}
+					};
+				}
+			};
+		}
+
+	}
+
 }
@@ -1,40 +1,102 @@
 package com.deepoove.swagger.diff.compare;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import com.deepoove.swagger.diff.model.ChangedAttribute;
+import com.deepoove.swagger.diff.model.ElPath;
 import com.deepoove.swagger.diff.model.ElProperty;
 
 import io.swagger.models.Model;
+import io.swagger.models.properties.ArrayProperty;
+import io.swagger.models.properties.MapProperty;
+import io.swagger.models.properties.ObjectProperty;
 import io.swagger.models.properties.Property;
 import io.swagger.models.properties.RefProperty;
 
 /**
  * compare two model
+ * <p>
+ * A property found in both models is compared by its type, format, enum and
+ * constraints, and through the items of an array, the values of a map and
+ * the properties of an inline object. The items and values keep the el of
+ * their property.
+ * <p>
+ * Referenced definitions are read by id from the {@link DefinitionIndex} of
+ * each doc and compared once per {@link DefinitionDiffCache}, definitions with
+ * the same {@link SpecFingerprint} are not compared, and a definition which
+ * refers back to itself, directly or through other definitions, is expanded
+ * once per cycle.
+ *
  * @author Sayi
- * @version 
+ * @version
  */
 public class ModelDiff {
 
 	private List<ElProperty> increased;
 	private List<ElProperty> missing;
+	private List<ElProperty> changed;
 
-	Map<String, Model> oldDedinitions;
-	Map<String, Model> newDedinitions;
+	DefinitionIndex oldIndex;
+	DefinitionIndex newIndex;
+
+	private DefinitionDiffCache cache;
+	private Traversal traversal;
+
+	// ids of the definitions compared by this diff, none for inline models
+	private int leftId = DefinitionIndex.NONE;
+	private int rightId = DefinitionIndex.NONE;
 
 	private ModelDiff() {
 		increased = new ArrayList<ElProperty>();
 		missing = new ArrayList<ElProperty>();
+		changed = new ArrayList<ElProperty>();
 	}
 
+	/**
+	 * builds an index of both definitions on each call, see
+	 * {@link #buildWithSpec(PreparedSpec, PreparedSpec)} to reuse them
+	 */
 	public static ModelDiff buildWithDefinition(Map<String, Model> left,
 			Map<String, Model> right) {
+		return buildWithDefinition(left, right, new DefinitionDiffCache());
+	}
+
+	public static ModelDiff buildWithDefinition(Map<String, Model> left,
+			Map<String, Model> right, DefinitionDiffCache cache) {
+		return buildWithIndex(DefinitionIndex.of(left), DefinitionIndex.of(right), cache);
+	}
+
+	/**
+	 * @param left
+	 *            old doc, its index is built once and shared by every diff
+	 *            built with it
+	 */
+	public static ModelDiff buildWithSpec(PreparedSpec left, PreparedSpec right) {
+		return buildWithIndex(left.getDefinitionIndex(), right.getDefinitionIndex(),
+				new DefinitionDiffCache());
+	}
+
+	/**
+	 * @param left
+	 *            definitions of the old doc, shared by the comparisons of a
+	 *            run, see {@link PreparedSpec#getDefinitionIndex()}
+	 * @param right
+	 *            definitions of the new doc
+	 */
+	public static ModelDiff buildWithIndex(DefinitionIndex left, DefinitionIndex right,
+			DefinitionDiffCache cache) {
 		ModelDiff diff = new ModelDiff();
-		diff.oldDedinitions = left;
-		diff.newDedinitions = right;
+		diff.oldIndex = left;
+		diff.newIndex = right;
+		diff.cache = cache;
+		diff.traversal = new Traversal();
 		return diff;
 	}
 
@@ -44,8 +106,13 @@ public class ModelDiff {
 
 	public ModelDiff diff(Model leftModel, Model rightModel, String parentEl) {
 		if (null == leftModel && null == rightModel) return this;
-		Map<String, Property> leftProperties = null == leftModel ? null : leftModel.getProperties();
-		Map<String, Property> rightProperties = null == rightModel ? null : rightModel.getProperties();
+		diffProperties(null == leftModel ? null : leftModel.getProperties(),
+				null == rightModel ? null : rightModel.getProperties(), ElPath.of(parentEl));
+		return this;
+	}
+
+	private void diffProperties(Map<String, Property> leftProperties,
+			Map<String, Property> rightProperties, ElPath parentEl) {
 		MapKeyDiff<String, Property> propertyDiff = MapKeyDiff.diff(leftProperties, rightProperties);
 		Map<String, Property> increasedProp = propertyDiff.getIncreased();
 		Map<String, Property> missingProp = propertyDiff.getMissing();
@@ -55,50 +122,155 @@ public class ModelDiff {
 
 		List<String> sharedKey = propertyDiff.getSharedKey();
 		for (String key : sharedKey) {
-			Property left = leftProperties.get(key);
-			Property right = rightProperties.get(key);
-			if (left instanceof RefProperty
-					&& right instanceof RefProperty) {
-				String leftRef = ((RefProperty) left).getSimpleRef();
-				String rightRef = ((RefProperty) right).getSimpleRef();
-				diff(oldDedinitions.get(leftRef),
-						newDedinitions.get(rightRef),
-						null == parentEl ? key : (parentEl + "." + key));
+			diffProperty(leftProperties.get(key), rightProperties.get(key), new ElPath(parentEl, key));
+		}
+	}
+
+	/**
+	 * compare two properties found at el
+	 */
+	ModelDiff diffProperty(Property left, Property right, ElPath el) {
+		if (null == left || null == right) return this;
+		if (left instanceof RefProperty && right instanceof RefProperty) {
+			diffRef(oldIndex.ref(left), newIndex.ref(right), el);
+			return this;
+		}
+		List<ChangedAttribute> attributes = AttributeDiff.diff(left, right);
+		if (!attributes.isEmpty()) {
+			ElProperty prop = new ElProperty();
+			prop.setPath(el);
+			prop.setProperty(right);
+			prop.setLeftProperty(left);
+			prop.setChangedAttributes(attributes);
+			changed.add(prop);
+			if ("type".equals(attributes.get(0).getName())) return this;
+		}
+		if (left instanceof ArrayProperty && right instanceof ArrayProperty) {
+			diffProperty(((ArrayProperty) left).getItems(), ((ArrayProperty) right).getItems(), el);
+		} else if (left instanceof MapProperty && right instanceof MapProperty) {
+			diffProperty(((MapProperty) left).getAdditionalProperties(),
+					((MapProperty) right).getAdditionalProperties(), el);
+		} else if (left instanceof ObjectProperty && right instanceof ObjectProperty) {
+			diffProperties(((ObjectProperty) left).getProperties(), ((ObjectProperty) right).getProperties(),
+					el);
+		}
+		return this;
+	}
+
+	/**
+	 * compare two definitions by id, the diff of each pair of definitions is
+	 * computed once and re-based onto parentEl
+	 *
+	 * @param leftId
+	 *            id in the old index, {@link DefinitionIndex#NONE} for an
+	 *            undefined ref
+	 */
+	ModelDiff diffRef(int leftId, int rightId, ElPath parentEl) {
+		if (cache.skip(leftId, rightId)) return this;
+		ModelDiff relative = cache.get(leftId, rightId);
+		if (null == relative) {
+			Long pair = Long.valueOf(((long) leftId << 32) | (rightId & 0xffffffffL));
+			Integer visiting = traversal.visiting.get(pair);
+			if (null != visiting) {
+				// cycle: the pair is being compared by a caller
+				traversal.lowestCut = Math.min(traversal.lowestCut, visiting);
+				return this;
 			}
+			relative = compareDefinitions(pair, leftId, rightId);
 		}
+		// the relative diffs share the nodes of their parents, so do the rebased
+		Map<ElPath, ElPath> rebased = new IdentityHashMap<ElPath, ElPath>();
+		rebase(relative.increased, parentEl, rebased, increased);
+		rebase(relative.missing, parentEl, rebased, missing);
+		rebase(relative.changed, parentEl, rebased, changed);
 		return this;
 	}
 
+	private ModelDiff compareDefinitions(Long pair, int leftId, int rightId) {
+		int depth = traversal.visiting.size();
+		int lowestCut = traversal.lowestCut;
+		traversal.visiting.put(pair, depth);
+		traversal.lowestCut = Integer.MAX_VALUE;
+		cache.countCompared();
+
+		ModelDiff relative = new ModelDiff();
+		relative.oldIndex = oldIndex;
+		relative.newIndex = newIndex;
+		relative.cache = cache;
+		relative.traversal = traversal;
+		relative.leftId = leftId;
+		relative.rightId = rightId;
+		relative.diffProperties(oldIndex.properties(leftId), newIndex.properties(rightId), null);
+
+		traversal.visiting.remove(pair);
+		// a diff cut short at a caller depends on the path it was reached by
+		if (traversal.lowestCut >= depth) {
+			cache.put(leftId, rightId, relative);
+		}
+		traversal.lowestCut = Math.min(lowestCut, traversal.lowestCut);
+		return relative;
+	}
+
+	private static void rebase(List<ElProperty> relative, ElPath parentEl,
+			Map<ElPath, ElPath> rebased, List<ElProperty> result) {
+		for (ElProperty prop : relative) {
+			ElProperty pWithPath = new ElProperty();
+			pWithPath.setProperty(prop.getProperty());
+			pWithPath.setLeftProperty(prop.getLeftProperty());
+			pWithPath.setChangedAttributes(prop.getChangedAttributes());
+			pWithPath.setPath(ElPath.rebase(parentEl, prop.getPath(), rebased));
+			result.add(pWithPath);
+		}
+	}
+
 	private Collection<? extends ElProperty> convert2ElPropertys(
-			Map<String, Property> propMap, String parentEl, boolean isLeft) {
+			Map<String, Property> propMap, ElPath parentEl, boolean isLeft) {
 		List<ElProperty> result = new ArrayList<ElProperty>();
-		if (null == propMap) return result;
+		if (null == propMap || propMap.isEmpty()) return result;
+		DefinitionIndex index = isLeft ? oldIndex : newIndex;
+		// ids of the definitions being expanded
+		BitSet expanding = new BitSet();
+		int id = isLeft ? leftId : rightId;
+		if (DefinitionIndex.NONE != id) expanding.set(id);
 		for (Entry<String, Property> entry : propMap.entrySet()) {
-			String propName = entry.getKey();
-			Property property = entry.getValue();
-			if (property instanceof RefProperty) {
-				String ref = ((RefProperty) property).getSimpleRef();
-				Model model = isLeft ? oldDedinitions.get(ref)
-						: newDedinitions.get(ref);
-				if (model != null) {
-					Map<String, Property> properties = model.getProperties();
-					result.addAll(
-							convert2ElPropertys(properties,
-									null == parentEl ? propName
-											: (parentEl + "." + propName),
-									isLeft));
-				}
-			} else {
-				ElProperty pWithPath = new ElProperty();
-				pWithPath.setProperty(property);
-				pWithPath.setEl(null == parentEl ? propName
-						: (parentEl + "." + propName));
-				result.add(pWithPath);
-			}
+			convert2ElProperty(entry.getKey(), entry.getValue(), index.ref(entry.getValue()), parentEl,
+					index, expanding, result);
 		}
 		return result;
 	}
 
+	private static void convert2ElPropertys(int id, ElPath parentEl, DefinitionIndex index,
+			BitSet expanding, List<ElProperty> result) {
+		String[] names = index.propertyNames(id);
+		Property[] values = index.propertyValues(id);
+		int[] refs = index.propertyRefs(id);
+		for (int i = 0; i < names.length; i++) {
+			convert2ElProperty(names[i], values[i], refs[i], parentEl, index, expanding, result);
+		}
+	}
+
+	/**
+	 * @param ref
+	 *            id of the definition the property refers to
+	 */
+	private static void convert2ElProperty(String propName, Property property, int ref, ElPath parentEl,
+			DefinitionIndex index, BitSet expanding, List<ElProperty> result) {
+		ElPath el = new ElPath(parentEl, propName);
+		if (property instanceof RefProperty) {
+			if (null == index.model(ref)) return;
+			if (!expanding.get(ref)) {
+				expanding.set(ref);
+				convert2ElPropertys(ref, el, index, expanding, result);
+				expanding.clear(ref);
+				return;
+			}
+		}
+		ElProperty pWithPath = new ElProperty();
+		pWithPath.setProperty(property);
+		pWithPath.setPath(el);
+		result.add(pWithPath);
+	}
+
 	public List<ElProperty> getIncreased() {
 		return increased;
 	}
@@ -111,8 +283,24 @@ public class ModelDiff {
 		return missing;
 	}
 
+	/**
+	 * @return the properties found in both models with changed attributes
+	 */
+	public List<ElProperty> getChanged() {
+		return changed;
+	}
+
 	public void setMissing(List<ElProperty> missing) {
 		this.missing = missing;
 	}
 
+	/**
+	 * definition pairs being compared by one call of diff, keyed by both ids,
+	 * with their depth
+	 */
+	private static class Traversal {
+		private final Map<Long, Integer> visiting = new HashMap<Long, Integer>();
+		private int lowestCut = Integer.MAX_VALUE;
+	}
+
 }
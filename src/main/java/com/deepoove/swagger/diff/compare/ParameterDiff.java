@@ -1,17 +1,21 @@
 package com.deepoove.swagger.diff.compare;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.lang3.StringUtils;
 
 import com.deepoove.swagger.diff.model.ChangedParameter;
+import com.deepoove.swagger.diff.model.ElPath;
 
 import io.swagger.models.Model;
 import io.swagger.models.RefModel;
 import io.swagger.models.parameters.BodyParameter;
 import io.swagger.models.parameters.Parameter;
+import io.swagger.models.parameters.SerializableParameter;
 
 /**
  * compare two parameter
@@ -24,36 +28,80 @@ public class ParameterDiff {
 	private List<Parameter> missing;
 	private List<ChangedParameter> changed;
 	
-	Map<String, Model> oldDedinitions;
-	Map<String, Model> newDedinitions;
+	DefinitionIndex oldIndex;
+	DefinitionIndex newIndex;
+	DefinitionDiffCache cache;
 	
 	private ParameterDiff(){}
 	
+	/**
+	 * builds an index of both definitions on each call, see
+	 * {@link #buildWithSpec(PreparedSpec, PreparedSpec)} to reuse them
+	 */
 	public static ParameterDiff buildWithDefinition(Map<String, Model> left,
 			Map<String, Model> right) {
+		return buildWithDefinition(left, right, new DefinitionDiffCache());
+	}
+
+	public static ParameterDiff buildWithDefinition(Map<String, Model> left,
+			Map<String, Model> right, DefinitionDiffCache cache) {
+		return buildWithIndex(DefinitionIndex.of(left), DefinitionIndex.of(right), cache);
+	}
+
+	/**
+	 * @param left
+	 *            old doc, its index is built once and shared by every diff
+	 *            built with it
+	 */
+	public static ParameterDiff buildWithSpec(PreparedSpec left, PreparedSpec right) {
+		return buildWithIndex(left.getDefinitionIndex(), right.getDefinitionIndex(),
+				new DefinitionDiffCache());
+	}
+
+	/**
+	 * @param left
+	 *            definitions of the old doc, shared by the comparisons of a
+	 *            run, see {@link PreparedSpec#getDefinitionIndex()}
+	 * @param right
+	 *            definitions of the new doc
+	 */
+	public static ParameterDiff buildWithIndex(DefinitionIndex left, DefinitionIndex right,
+			DefinitionDiffCache cache) {
 		ParameterDiff diff = new ParameterDiff();
-		diff.oldDedinitions = left;
-		diff.newDedinitions = right;
+		diff.oldIndex = left;
+		diff.newIndex = right;
+		diff.cache = cache;
 		return diff;
 	}
 
 	public ParameterDiff diff(List<Parameter> left,
 			List<Parameter> right) {
+		return diff(left, right, Collections.<String, String> emptyMap());
+	}
+
+	/**
+	 * @param renamed
+	 *            new name of the path parameters by old name, the url of the
+	 *            path changed only by the names of its path parameters, see
+	 *            {@link PathDiff#renamedParameters(String, String)}
+	 */
+	public ParameterDiff diff(List<Parameter> left,
+			List<Parameter> right, Map<String, String> renamed) {
 		ParameterDiff instance = new ParameterDiff();
 		if (null == left) left = new ArrayList<Parameter>();
 		if (null == right) right = new ArrayList<Parameter>();
 		
-		instance.increased = new ArrayList<Parameter>(right);
+		ParameterIndex index = new ParameterIndex(right);
 		instance.missing = new ArrayList<Parameter>();
 		instance.changed = new ArrayList<ChangedParameter>();
 		for (Parameter leftPara : left){
 			String name = leftPara.getName();
-			int index = index(instance.increased, name);
-			if (-1 == index){
+			String rightName = "path".equals(leftPara.getIn()) && renamed.containsKey(name)
+					? renamed.get(name) : name;
+			Parameter rightPara = index.take(leftPara.getIn(), rightName);
+			if (null == rightPara){
 				instance.missing.add(leftPara);
 			}else{
-				Parameter rightPara = instance.increased.get(index);
-				instance.increased.remove(index);
 				
 				ChangedParameter changedParameter = new ChangedParameter();
 				changedParameter.setLeftParameter(leftPara);
@@ -65,22 +113,30 @@ public class ParameterDiff {
 					BodyParameter rightBodyPara = (BodyParameter)rightPara;
 					Model rightSchema = rightBodyPara.getSchema();
 					if (leftSchema instanceof RefModel && rightSchema instanceof RefModel){
-						String leftRef = ((RefModel) leftSchema).getSimpleRef();
-						String rightRef = ((RefModel) rightSchema).getSimpleRef();
-						Model leftModel = oldDedinitions.get(leftRef);
-						Model rightModel = newDedinitions.get(rightRef);
-						ModelDiff diff = ModelDiff.buildWithDefinition(oldDedinitions, newDedinitions).diff(leftModel, rightModel, name);
+						int leftId = oldIndex.id(((RefModel) leftSchema).getSimpleRef());
+						int rightId = newIndex.id(((RefModel) rightSchema).getSimpleRef());
+						ModelDiff diff = ModelDiff.buildWithIndex(oldIndex, newIndex, cache)
+								.diffRef(leftId, rightId, new ElPath(null, name));
 						changedParameter.setIncreased(diff.getIncreased());
 						changedParameter.setMissing(diff.getMissing());
+						changedParameter.setChanged(diff.getChanged());
 					}
 				}
 				
 				
+				changedParameter.setChangeName(!rightName.equals(name));
+
 				//is requried
 				boolean rightRequired = rightPara.getRequired();
 				boolean leftRequired = leftPara.getRequired();
 				changedParameter.setChangeRequired(leftRequired != rightRequired);
 				
+				//type
+				if (leftPara instanceof SerializableParameter && rightPara instanceof SerializableParameter){
+					changedParameter.setChangeType(isChangeType((SerializableParameter) leftPara,
+							(SerializableParameter) rightPara));
+				}
+				
 				//description
 				String description = rightPara.getDescription();
 				String oldPescription = leftPara.getDescription();
@@ -95,18 +151,17 @@ public class ParameterDiff {
 			}
 			
 		}
+		instance.increased = index.remaining();
 		return instance;
 	}
 
-	private static int index(List<Parameter> right, String name) {
-		int i = 0;
-		for (; i < right.size(); i++){
-			Parameter para = right.get(i);
-			if (name.equals(para.getName())){
-				return i;
-			} 
-		}
-		return -1;
+	private static boolean isChangeType(SerializableParameter left, SerializableParameter right) {
+		return !equals(left.getType(), right.getType()) || !equals(left.getFormat(), right.getFormat())
+				|| !equals(left.getEnum(), right.getEnum());
+	}
+
+	private static boolean equals(Object left, Object right) {
+		return null == left ? null == right : left.equals(right);
 	}
 
 	public List<Parameter> getIncreased() {
@@ -125,6 +180,55 @@ public class ParameterDiff {
 		this.missing = missing;
 	}
 
+	/**
+	 * index of parameters by name and location, a parameter is matched once
+	 * and the unmatched parameters keep their order
+	 */
+	private static class ParameterIndex {
+
+		private final Parameter[] parameters;
+		private final boolean[] taken;
+		// first untaken position of each key, next[i] is the next position with the same key
+		private final Map<String, Integer> first;
+		private final int[] next;
+
+		ParameterIndex(List<Parameter> parameters) {
+			this.parameters = parameters.toArray(new Parameter[parameters.size()]);
+			this.taken = new boolean[this.parameters.length];
+			this.first = new HashMap<String, Integer>(this.parameters.length * 2);
+			this.next = new int[this.parameters.length];
+			for (int i = this.parameters.length - 1; i >= 0; i--) {
+				Integer previous = first.put(key(this.parameters[i].getIn(), this.parameters[i].getName()), i);
+				next[i] = null == previous ? -1 : previous;
+			}
+		}
+
+		Parameter take(String in, String name) {
+			String key = key(in, name);
+			Integer i = first.get(key);
+			if (null == i) return null;
+			if (-1 == next[i]) {
+				first.remove(key);
+			} else {
+				first.put(key, next[i]);
+			}
+			taken[i] = true;
+			return parameters[i];
+		}
+
+		List<Parameter> remaining() {
+			List<Parameter> result = new ArrayList<Parameter>();
+			for (int i = 0; i < parameters.length; i++) {
+				if (!taken[i]) result.add(parameters[i]);
+			}
+			return result;
+		}
+
+		private static String key(String in, String name) {
+			return in + ":" + name;
+		}
+	}
+
 	public List<ChangedParameter> getChanged() {
 		return changed;
 	}
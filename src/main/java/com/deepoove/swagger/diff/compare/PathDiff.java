@@ -0,0 +1,152 @@
+package com.deepoove.swagger.diff.compare;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import io.swagger.models.Path;
+
+/**
+ * compare the paths of two docs by url, then match the remaining paths by
+ * their template
+ * <p>
+ * The template of a path is its url without the names of the path
+ * parameters and without a trailing slash, /pet/{petId} and /pet/{id}/ have
+ * the same template. A remaining old path is matched with the remaining new
+ * path of the same template when the template is unique on both sides, the
+ * matched paths are compared as a shared path under the new url, their path
+ * parameters are matched by position, see
+ * {@link #renamedParameters(String, String)}.
+ *
+ * @author Sayi
+ * @version
+ */
+public class PathDiff {
+
+	private Map<String, Path> increased;
+	private Map<String, Path> missing;
+	// urls of the shared paths in the old doc and in the new doc, by position
+	private List<String> sharedOldUrls;
+	private List<String> sharedNewUrls;
+
+	private PathDiff() {}
+
+	public static PathDiff diff(Map<String, Path> oldPaths, Map<String, Path> newPaths) {
+		MapKeyDiff<String, Path> keyDiff = MapKeyDiff.diff(oldPaths, newPaths);
+		PathDiff instance = new PathDiff();
+		instance.increased = copy(keyDiff.getIncreased());
+		instance.missing = copy(keyDiff.getMissing());
+		instance.sharedOldUrls = new ArrayList<String>(keyDiff.getSharedKey());
+		instance.sharedNewUrls = new ArrayList<String>(keyDiff.getSharedKey());
+		if (instance.increased.isEmpty() || instance.missing.isEmpty()) return instance;
+
+		// new url by template, null when two new urls have the same template
+		Map<String, String> index = new HashMap<String, String>(instance.increased.size() * 2);
+		for (String url : instance.increased.keySet()) {
+			String template = template(url);
+			index.put(template, index.containsKey(template) ? null : url);
+		}
+		Map<String, String> matched = new LinkedHashMap<String, String>();
+		Map<String, Integer> oldCounts = new HashMap<String, Integer>();
+		for (String url : instance.missing.keySet()) {
+			String template = template(url);
+			Integer count = oldCounts.get(template);
+			oldCounts.put(template, null == count ? 1 : count + 1);
+			String newUrl = index.get(template);
+			if (null != newUrl) matched.put(url, newUrl);
+		}
+		for (Entry<String, String> entry : matched.entrySet()) {
+			if (1 != oldCounts.get(template(entry.getKey()))) continue;
+			instance.missing.remove(entry.getKey());
+			instance.increased.remove(entry.getValue());
+			instance.sharedOldUrls.add(entry.getKey());
+			instance.sharedNewUrls.add(entry.getValue());
+		}
+		return instance;
+	}
+
+	/**
+	 * @return the url without the names of its path parameters and without
+	 *         a trailing slash
+	 */
+	static String template(String url) {
+		int end = url.length();
+		while (end > 1 && '/' == url.charAt(end - 1)) end--;
+		if (-1 == url.indexOf('{') && end == url.length()) return url;
+		StringBuilder sb = new StringBuilder(end);
+		boolean inParameter = false;
+		for (int i = 0; i < end; i++) {
+			char c = url.charAt(i);
+			if ('{' == c) {
+				inParameter = true;
+				sb.append(c);
+			} else if ('}' == c) {
+				inParameter = false;
+				sb.append(c);
+			} else if (!inParameter) {
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * @return new name of each path parameter of the old url, by old name,
+	 *         matched by position with the parameters of the new url of the
+	 *         same template, empty if no parameter was renamed
+	 */
+	public static Map<String, String> renamedParameters(String oldUrl, String newUrl) {
+		if (oldUrl.equals(newUrl)) return Collections.emptyMap();
+		List<String> oldNames = parameterNames(oldUrl);
+		List<String> newNames = parameterNames(newUrl);
+		Map<String, String> renamed = new HashMap<String, String>();
+		for (int i = 0; i < oldNames.size() && i < newNames.size(); i++) {
+			if (!oldNames.get(i).equals(newNames.get(i))) renamed.put(oldNames.get(i), newNames.get(i));
+		}
+		return renamed;
+	}
+
+	private static List<String> parameterNames(String url) {
+		List<String> names = new ArrayList<String>();
+		int start = url.indexOf('{');
+		while (-1 != start) {
+			int end = url.indexOf('}', start);
+			if (-1 == end) break;
+			names.add(url.substring(start + 1, end));
+			start = url.indexOf('{', end);
+		}
+		return names;
+	}
+
+	private static Map<String, Path> copy(Map<String, Path> paths) {
+		return null == paths ? new LinkedHashMap<String, Path>() : new LinkedHashMap<String, Path>(paths);
+	}
+
+	public Map<String, Path> getIncreased() {
+		return increased;
+	}
+
+	public Map<String, Path> getMissing() {
+		return missing;
+	}
+
+	/**
+	 * @return urls of the shared paths in the old doc
+	 */
+	public List<String> getSharedOldUrls() {
+		return sharedOldUrls;
+	}
+
+	/**
+	 * @return urls of the shared paths in the new doc, at the same position as
+	 *         their old url
+	 */
+	public List<String> getSharedNewUrls() {
+		return sharedNewUrls;
+	}
+
+}
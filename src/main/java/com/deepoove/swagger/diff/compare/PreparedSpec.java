@@ -0,0 +1,106 @@
+package com.deepoove.swagger.diff.compare;
+
+import java.util.Collections;
+import java.util.Map;
+
+import io.swagger.models.Model;
+import io.swagger.models.Path;
+import io.swagger.models.Swagger;
+
+/**
+ * a parsed and resolved swagger doc with what the comparison reads from it,
+ * prepared once and compared with any number of other docs
+ *
+ * @author Sayi
+ * @version
+ */
+public class PreparedSpec {
+
+	private final Swagger swagger;
+	private final Map<String, Path> paths;
+	private final Map<String, Model> definitions;
+	private SpecFingerprint fingerprint;
+	private DefinitionIndex definitionIndex;
+	private String[] definitionFingerprints;
+
+	private PreparedSpec(Swagger swagger) {
+		this.swagger = swagger;
+		this.paths = null == swagger.getPaths() ? Collections.<String, Path> emptyMap()
+				: swagger.getPaths();
+		this.definitions = null == swagger.getDefinitions()
+				? Collections.<String, Model> emptyMap() : swagger.getDefinitions();
+	}
+
+	public static PreparedSpec of(Swagger swagger) {
+		if (null == swagger) {
+			throw new IllegalArgumentException("cannot prepare null spec.");
+		}
+		return new PreparedSpec(swagger);
+	}
+
+	/**
+	 * @param fingerprint
+	 *            computed earlier for the same doc
+	 */
+	public static PreparedSpec of(Swagger swagger, SpecFingerprint fingerprint) {
+		PreparedSpec spec = of(swagger);
+		spec.fingerprint = fingerprint;
+		return spec;
+	}
+
+	public Swagger getSwagger() {
+		return swagger;
+	}
+
+	/**
+	 * @return paths of the doc, empty if it has none
+	 */
+	public Map<String, Path> getPaths() {
+		return paths;
+	}
+
+	/**
+	 * @return definitions of the doc by simple ref, empty if it has none
+	 */
+	public Map<String, Model> getDefinitions() {
+		return definitions;
+	}
+
+	/**
+	 * @return structural hashes of the doc, computed on the first call
+	 */
+	public synchronized SpecFingerprint getFingerprint() {
+		if (null == fingerprint) {
+			fingerprint = SpecFingerprint.of(swagger);
+		}
+		return fingerprint;
+	}
+
+	/**
+	 * @return the definitions by id, built on the first call
+	 */
+	public synchronized DefinitionIndex getDefinitionIndex() {
+		if (null == definitionIndex) {
+			definitionIndex = DefinitionIndex.of(definitions);
+		}
+		return definitionIndex;
+	}
+
+	/**
+	 * @return the fingerprint of each definition by its id in
+	 *         {@link #getDefinitionIndex()}, built on the first call
+	 */
+	synchronized String[] definitionFingerprints() {
+		if (null == definitionFingerprints) {
+			DefinitionIndex index = getDefinitionIndex();
+			SpecFingerprint fingerprint = getFingerprint();
+			String[] fingerprints = new String[index.size()];
+			for (int id = 0; id < fingerprints.length; id++) {
+				fingerprints[id] = fingerprint.definition(index.name(id));
+			}
+			definitionFingerprints = fingerprints;
+		}
+		return definitionFingerprints;
+	}
+
+}
@@ -14,32 +14,74 @@ public class PropertyDiff {
 
 	private List<ElProperty> increased;
 	private List<ElProperty> missing;
+	private List<ElProperty> changed;
 
-	Map<String, Model> oldDedinitions;
-	Map<String, Model> newDedinitions;
+	DefinitionIndex oldIndex;
+	DefinitionIndex newIndex;
+	DefinitionDiffCache cache;
 
 	private PropertyDiff() {
 		increased = new ArrayList<ElProperty>();
 		missing = new ArrayList<ElProperty>();
+		changed = new ArrayList<ElProperty>();
 	}
 
+	/**
+	 * builds an index of both definitions on each call, see
+	 * {@link #buildWithSpec(PreparedSpec, PreparedSpec)} to reuse them
+	 */
 	public static PropertyDiff buildWithDefinition(Map<String, Model> left,
 			Map<String, Model> right) {
+		return buildWithDefinition(left, right, new DefinitionDiffCache());
+	}
+
+	public static PropertyDiff buildWithDefinition(Map<String, Model> left,
+			Map<String, Model> right, DefinitionDiffCache cache) {
+		return buildWithIndex(DefinitionIndex.of(left), DefinitionIndex.of(right), cache);
+	}
+
+	/**
+	 * @param left
+	 *            old doc, its index is built once and shared by every diff
+	 *            built with it
+	 */
+	public static PropertyDiff buildWithSpec(PreparedSpec left, PreparedSpec right) {
+		return buildWithIndex(left.getDefinitionIndex(), right.getDefinitionIndex(),
+				new DefinitionDiffCache());
+	}
+
+	/**
+	 * @param left
+	 *            definitions of the old doc, shared by the comparisons of a
+	 *            run, see {@link PreparedSpec#getDefinitionIndex()}
+	 * @param right
+	 *            definitions of the new doc
+	 */
+	public static PropertyDiff buildWithIndex(DefinitionIndex left, DefinitionIndex right,
+			DefinitionDiffCache cache) {
 		PropertyDiff diff = new PropertyDiff();
-		diff.oldDedinitions = left;
-		diff.newDedinitions = right;
+		diff.oldIndex = left;
+		diff.newIndex = right;
+		diff.cache = cache;
 		return diff;
 	}
 
 	public PropertyDiff diff(Property left, Property right) {
+		if (null == left && null == right) return this;
 		if ((null == left || left instanceof RefProperty) && (null == right || right instanceof RefProperty)) {
-			Model leftModel = null == left ? null : oldDedinitions.get(((RefProperty) left).getSimpleRef());
-			Model rightModel = null == right ? null : newDedinitions.get(((RefProperty) right).getSimpleRef());
 			ModelDiff diff = ModelDiff
-					.buildWithDefinition(oldDedinitions, newDedinitions)
-					.diff(leftModel, rightModel);
+					.buildWithIndex(oldIndex, newIndex, cache)
+					.diffRef(oldIndex.ref(left), newIndex.ref(right), null);
 			increased.addAll(diff.getIncreased());
 			missing.addAll(diff.getMissing());
+			changed.addAll(diff.getChanged());
+		} else {
+			ModelDiff diff = ModelDiff
+					.buildWithIndex(oldIndex, newIndex, cache)
+					.diffProperty(left, right, null);
+			increased.addAll(diff.getIncreased());
+			missing.addAll(diff.getMissing());
+			changed.addAll(diff.getChanged());
 		}
 		return this;
 	}
@@ -60,4 +102,12 @@ public class PropertyDiff {
 		this.missing = missing;
 	}
 
+	public List<ElProperty> getChanged() {
+		return changed;
+	}
+
+	public void setChanged(List<ElProperty> changed) {
+		this.changed = changed;
+	}
+
 }
@@ -0,0 +1,145 @@
+package com.deepoove.swagger.diff.compare;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.deepoove.swagger.diff.model.ChangedResponse;
+import com.deepoove.swagger.diff.model.ElPath;
+import com.deepoove.swagger.diff.model.ElProperty;
+
+import io.swagger.models.Model;
+import io.swagger.models.Response;
+import io.swagger.models.properties.Property;
+
+/**
+ * compare the responses of two operation by status code
+ * <p>
+ * The schema of each response is compared once, here, the one of 200 being
+ * the return type of the operation, through the {@link DefinitionDiffCache},
+ * so a definition used by the responses of many operations is compared once.
+ * The headers found in both responses are compared like properties.
+ *
+ * @author Sayi
+ * @version
+ */
+public class ResponseDiff {
+
+	private Map<String, Response> increased;
+	private Map<String, Response> missing;
+	private List<ChangedResponse> changed;
+
+	DefinitionIndex oldIndex;
+	DefinitionIndex newIndex;
+	DefinitionDiffCache cache;
+
+	private ResponseDiff() {
+	}
+
+	/**
+	 * builds an index of both definitions on each call, see
+	 * {@link #buildWithSpec(PreparedSpec, PreparedSpec)} to reuse them
+	 */
+	public static ResponseDiff buildWithDefinition(Map<String, Model> left,
+			Map<String, Model> right) {
+		return buildWithDefinition(left, right, new DefinitionDiffCache());
+	}
+
+	public static ResponseDiff buildWithDefinition(Map<String, Model> left,
+			Map<String, Model> right, DefinitionDiffCache cache) {
+		return buildWithIndex(DefinitionIndex.of(left), DefinitionIndex.of(right), cache);
+	}
+
+	/**
+	 * @param left
+	 *            old doc, its index is built once and shared by every diff
+	 *            built with it
+	 */
+	public static ResponseDiff buildWithSpec(PreparedSpec left, PreparedSpec right) {
+		return buildWithIndex(left.getDefinitionIndex(), right.getDefinitionIndex(),
+				new DefinitionDiffCache());
+	}
+
+	/**
+	 * @param left
+	 *            definitions of the old doc, shared by the comparisons of a
+	 *            run, see {@link PreparedSpec#getDefinitionIndex()}
+	 * @param right
+	 *            definitions of the new doc
+	 */
+	public static ResponseDiff buildWithIndex(DefinitionIndex left, DefinitionIndex right,
+			DefinitionDiffCache cache) {
+		ResponseDiff diff = new ResponseDiff();
+		diff.oldIndex = left;
+		diff.newIndex = right;
+		diff.cache = cache;
+		return diff;
+	}
+
+	public ResponseDiff diff(Map<String, Response> left, Map<String, Response> right) {
+		MapKeyDiff<String, Response> responseDiff = MapKeyDiff.diff(left, right);
+		increased = null == responseDiff.getIncreased() ? new LinkedHashMap<String, Response>()
+				: responseDiff.getIncreased();
+		missing = null == responseDiff.getMissing() ? new LinkedHashMap<String, Response>()
+				: responseDiff.getMissing();
+		changed = new ArrayList<ChangedResponse>();
+		for (String code : responseDiff.getSharedKey()) {
+			Response leftResponse = left.get(code);
+			Response rightResponse = right.get(code);
+			ChangedResponse changedResponse = new ChangedResponse();
+			changedResponse.setCode(code);
+			changedResponse.setLeftResponse(leftResponse);
+			changedResponse.setRightResponse(rightResponse);
+
+			PropertyDiff propertyDiff = PropertyDiff
+					.buildWithIndex(oldIndex, newIndex, cache)
+					.diff(leftResponse.getSchema(), rightResponse.getSchema());
+			changedResponse.setAddProps(propertyDiff.getIncreased());
+			changedResponse.setMissingProps(propertyDiff.getMissing());
+			changedResponse.setChangedProps(propertyDiff.getChanged());
+
+			MapKeyDiff<String, Property> headerDiff = MapKeyDiff.diff(leftResponse.getHeaders(),
+					rightResponse.getHeaders());
+			changedResponse.setAddHeaders(convert2ElPropertys(headerDiff.getIncreased()));
+			changedResponse.setMissingHeaders(convert2ElPropertys(headerDiff.getMissing()));
+			ModelDiff changedHeaders = ModelDiff.buildWithIndex(oldIndex, newIndex, cache);
+			for (String name : headerDiff.getSharedKey()) {
+				changedHeaders.diffProperty(leftResponse.getHeaders().get(name),
+						rightResponse.getHeaders().get(name), new ElPath(null, name));
+			}
+			changedResponse.setChangedHeaders(changedHeaders.getChanged());
+
+			if (changedResponse.isDiff()) {
+				changed.add(changedResponse);
+			}
+		}
+		return this;
+	}
+
+	private static List<ElProperty> convert2ElPropertys(Map<String, Property> headers) {
+		List<ElProperty> result = new ArrayList<ElProperty>();
+		if (null == headers) return result;
+		for (Entry<String, Property> entry : headers.entrySet()) {
+			ElProperty header = new ElProperty();
+			header.setPath(new ElPath(null, entry.getKey()));
+			header.setProperty(entry.getValue());
+			result.add(header);
+		}
+		return result;
+	}
+
+	public Map<String, Response> getIncreased() {
+		return increased;
+	}
+
+	public Map<String, Response> getMissing() {
+		return missing;
+	}
+
+	public List<ChangedResponse> getChanged() {
+		return changed;
+	}
+
+}
@@ -0,0 +1,397 @@
+package com.deepoove.swagger.diff.compare;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.math.BigDecimal;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.util.JsonGeneratorDelegate;
+
+import io.swagger.models.HttpMethod;
+import io.swagger.models.Model;
+import io.swagger.models.Operation;
+import io.swagger.models.Path;
+import io.swagger.models.Swagger;
+import io.swagger.util.Json;
+
+/**
+ * structural hash of each definition, operation and path of a swagger doc
+ * <p>
+ * The hash of a definition covers the definitions it refers to, directly or
+ * through other definitions, and the hash of an operation covers the
+ * definitions it refers to. Two items with the same hash have no difference,
+ * {@link SpecificationDiff} and {@link ModelDiff} skip them.
+ *
+ * @author Sayi
+ * @version
+ */
+public class SpecFingerprint {
+
+	private static final String DEFINITION_REF = "#/definitions/";
+
+	private final Map<String, String> definitions;
+	private final Map<String, String> paths;
+	private final Map<String, Map<HttpMethod, String>> operations;
+
+	private SpecFingerprint(Map<String, String> definitions, Map<String, String> paths,
+			Map<String, Map<HttpMethod, String>> operations) {
+		this.definitions = definitions;
+		this.paths = paths;
+		this.operations = operations;
+	}
+
+	public static SpecFingerprint of(Swagger swagger) {
+		if (null == swagger) {
+			throw new IllegalArgumentException("cannot fingerprint null spec.");
+		}
+		Map<String, Model> models = null == swagger.getDefinitions()
+				? Collections.<String, Model> emptyMap() : swagger.getDefinitions();
+		Map<String, String> definitions = new DefinitionHasher(models).hashAll();
+
+		Map<String, String> paths = new HashMap<String, String>();
+		Map<String, Map<HttpMethod, String>> operations = new HashMap<String, Map<HttpMethod, String>>();
+		if (null != swagger.getPaths()) {
+			for (Entry<String, Path> entry : swagger.getPaths().entrySet()) {
+				Map<HttpMethod, String> hashes = new LinkedHashMap<HttpMethod, String>();
+				Digest pathDigest = new Digest();
+				for (Entry<HttpMethod, Operation> op : entry.getValue().getOperationMap().entrySet()) {
+					String hash = hashOperation(op.getValue(), definitions);
+					hashes.put(op.getKey(), hash);
+					pathDigest.update(op.getKey().name()).update(hash);
+				}
+				operations.put(entry.getKey(), hashes);
+				paths.put(entry.getKey(), pathDigest.hex());
+			}
+		}
+		return new SpecFingerprint(definitions, paths, operations);
+	}
+
+	/**
+	 * rebuild the fingerprint of a doc from the maps of an earlier one
+	 * 
+	 * @see #getDefinitions()
+	 * @see #getPaths()
+	 * @see #getOperations()
+	 */
+	public static SpecFingerprint of(Map<String, String> definitions, Map<String, String> paths,
+			Map<String, Map<HttpMethod, String>> operations) {
+		return new SpecFingerprint(new HashMap<String, String>(definitions),
+				new HashMap<String, String>(paths),
+				new HashMap<String, Map<HttpMethod, String>>(operations));
+	}
+
+	/**
+	 * @return hash of each definition by simple ref
+	 */
+	public Map<String, String> getDefinitions() {
+		return Collections.unmodifiableMap(definitions);
+	}
+
+	/**
+	 * @return hash of each path by url
+	 */
+	public Map<String, String> getPaths() {
+		return Collections.unmodifiableMap(paths);
+	}
+
+	/**
+	 * @return hash of each operation by url and method
+	 */
+	public Map<String, Map<HttpMethod, String>> getOperations() {
+		return Collections.unmodifiableMap(operations);
+	}
+
+	/**
+	 * @return hash of the definition and the definitions it refers to, null
+	 *         for an undefined ref
+	 */
+	public String definition(String ref) {
+		return null == ref ? null : definitions.get(ref);
+	}
+
+	/**
+	 * @return hash of the operations of the path, null for an unknown path
+	 */
+	public String path(String pathUrl) {
+		return paths.get(pathUrl);
+	}
+
+	/**
+	 * @return hash of the operation and the definitions it refers to, null for
+	 *         an unknown operation
+	 */
+	public String operation(String pathUrl, HttpMethod method) {
+		Map<HttpMethod, String> hashes = operations.get(pathUrl);
+		return null == hashes ? null : hashes.get(method);
+	}
+
+	/**
+	 * @return true if both hashes are known and equal
+	 */
+	static boolean same(String left, String right) {
+		return null != left && left.equals(right);
+	}
+
+	private static String hashOperation(Operation operation, Map<String, String> definitions) {
+		TreeSet<String> refs = new TreeSet<String>();
+		Digest digest = new Digest().update(operation, refs);
+		for (String ref : refs) {
+			digest.update(ref).update(String.valueOf(definitions.get(ref)));
+		}
+		return digest.hex();
+	}
+
+	/**
+	 * hashes the definitions by strongly connected component: the definitions
+	 * of a cycle share the hash of the cycle, which covers the components it
+	 * refers to
+	 */
+	private static class DefinitionHasher {
+
+		private final Map<String, Model> models;
+		private final Map<String, String> own = new HashMap<String, String>();
+		private final Map<String, TreeSet<String>> edges = new HashMap<String, TreeSet<String>>();
+		private final Map<String, Integer> index = new HashMap<String, Integer>();
+		private final Map<String, Integer> lowLink = new HashMap<String, Integer>();
+		private final Map<String, String> componentHash = new HashMap<String, String>();
+		private final List<String> stack = new ArrayList<String>();
+		private final Map<String, Boolean> onStack = new HashMap<String, Boolean>();
+		// definitions being visited with their refs left to visit, deepest last
+		private final List<Visit> visits = new ArrayList<Visit>();
+
+		DefinitionHasher(Map<String, Model> models) {
+			this.models = models;
+		}
+
+		Map<String, String> hashAll() {
+			for (Entry<String, Model> entry : models.entrySet()) {
+				TreeSet<String> refs = new TreeSet<String>();
+				own.put(entry.getKey(), new Digest().update(entry.getValue(), refs).hex());
+				refs.retainAll(models.keySet());
+				edges.put(entry.getKey(), refs);
+			}
+			for (String name : models.keySet()) {
+				if (!index.containsKey(name)) connect(name);
+			}
+			Map<String, String> result = new HashMap<String, String>();
+			for (String name : models.keySet()) {
+				result.put(name, new Digest().update(name).update(componentHash.get(name)).hex());
+			}
+			return result;
+		}
+
+		/**
+		 * Tarjan's strongly connected components from name, with an explicit
+		 * stack of visits so that a long chain of refs does not overflow the
+		 * thread stack
+		 */
+		private void connect(String name) {
+			visit(name);
+			while (!visits.isEmpty()) {
+				Visit visit = visits.get(visits.size() - 1);
+				if (visit.refs.hasNext()) {
+					String ref = visit.refs.next();
+					if (!index.containsKey(ref)) {
+						visit(ref);
+					} else if (Boolean.TRUE.equals(onStack.get(ref))) {
+						lowLink.put(visit.name, Math.min(lowLink.get(visit.name), index.get(ref)));
+					}
+					continue;
+				}
+				visits.remove(visits.size() - 1);
+				if (!visits.isEmpty()) {
+					String caller = visits.get(visits.size() - 1).name;
+					lowLink.put(caller, Math.min(lowLink.get(caller), lowLink.get(visit.name)));
+				}
+				if (lowLink.get(visit.name).intValue() == index.get(visit.name).intValue()) {
+					component(visit.name);
+				}
+			}
+		}
+
+		private void visit(String name) {
+			int order = index.size();
+			index.put(name, order);
+			lowLink.put(name, order);
+			stack.add(name);
+			onStack.put(name, Boolean.TRUE);
+			visits.add(new Visit(name, edges.get(name).iterator()));
+		}
+
+		/**
+		 * hash the component whose root is name, its members are on top of
+		 * the stack
+		 */
+		private void component(String name) {
+			List<String> members = stack.subList(stack.lastIndexOf(name), stack.size());
+			TreeSet<String> content = new TreeSet<String>();
+			TreeSet<String> referred = new TreeSet<String>();
+			for (String member : members) {
+				onStack.put(member, Boolean.FALSE);
+				content.add(member + "=" + own.get(member));
+				for (String ref : edges.get(member)) {
+					String hash = componentHash.get(ref);
+					// refs without a hash yet are members of this component
+					if (null != hash) referred.add(hash);
+				}
+			}
+			Digest digest = new Digest();
+			for (String item : content) {
+				digest.update(item);
+			}
+			for (String item : referred) {
+				digest.update(item);
+			}
+			String hash = digest.hex();
+			for (String member : members) {
+				componentHash.put(member, hash);
+			}
+			members.clear();
+		}
+	}
+
+	private static final class Visit {
+
+		private final String name;
+		private final Iterator<String> refs;
+
+		Visit(String name, Iterator<String> refs) {
+			this.name = name;
+			this.refs = refs;
+		}
+	}
+
+	/**
+	 * collects the values of the $ref fields while the json is written, and
+	 * writes the decimals without their trailing zeros: 10 parsed from a doc
+	 * and 1E+1 read back from a saved doc hash the same
+	 */
+	private static final class HashGenerator extends JsonGeneratorDelegate {
+
+		private final Set<String> refs;
+		private boolean ref;
+
+		HashGenerator(JsonGenerator generator, Set<String> refs) {
+			super(generator, false);
+			this.refs = refs;
+		}
+
+		@Override
+		public void writeFieldName(String name) throws IOException {
+			ref = "$ref".equals(name);
+			super.writeFieldName(name);
+		}
+
+		@Override
+		public void writeFieldName(SerializableString name) throws IOException {
+			ref = "$ref".equals(name.getValue());
+			super.writeFieldName(name);
+		}
+
+		@Override
+		public void writeString(String text) throws IOException {
+			if (ref && null != text) {
+				refs.add(text.startsWith(DEFINITION_REF) ? text.substring(DEFINITION_REF.length()) : text);
+			}
+			ref = false;
+			super.writeString(text);
+		}
+
+		@Override
+		public void writeNumber(BigDecimal value) throws IOException {
+			if (null != value) {
+				// a zero keeps its scale when stripped
+				value = 0 == value.signum() ? BigDecimal.ZERO : value.stripTrailingZeros();
+			}
+			super.writeNumber(value);
+		}
+	}
+
+	private static class Digest {
+
+		private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+		private final MessageDigest md;
+
+		Digest() {
+			try {
+				md = MessageDigest.getInstance("SHA-1");
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		Digest update(byte[] bytes) {
+			md.update(bytes);
+			// separates the items so that (ab, c) and (a, bc) differ
+			md.update((byte) 0);
+			return this;
+		}
+
+		/**
+		 * hash the json of value as it is written, without building its tree
+		 * or its bytes
+		 * 
+		 * @param refs
+		 *            the simple refs found in value are added to it
+		 */
+		Digest update(Object value, Set<String> refs) {
+			OutputStream out = new OutputStream() {
+				@Override
+				public void write(int b) {
+					md.update((byte) b);
+				}
+
+				@Override
+				public void write(byte[] b, int off, int len) {
+					md.update(b, off, len);
+				}
+			};
+			try {
+				JsonGenerator generator = new HashGenerator(Json.mapper().getFactory().createGenerator(out), refs);
+				try {
+					Json.mapper().writeValue(generator, value);
+				} finally {
+					generator.close();
+				}
+			} catch (IOException e) {
+				throw new IllegalStateException("cannot fingerprint spec.", e);
+			}
+			md.update((byte) 0);
+			return this;
+		}
+
+		Digest update(String text) {
+			try {
+				return update(text.getBytes("UTF-8"));
+			} catch (UnsupportedEncodingException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		String hex() {
+			byte[] hash = md.digest();
+			char[] chars = new char[hash.length * 2];
+			for (int i = 0; i < hash.length; i++) {
+				chars[2 * i] = HEX[(hash[i] >> 4) & 0xf];
+				chars[2 * i + 1] = HEX[hash[i] & 0xf];
+			}
+			return new String(chars);
+		}
+	}
+
+}
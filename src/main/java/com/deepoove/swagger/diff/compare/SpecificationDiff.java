@@ -2,25 +2,46 @@ package com.deepoove.swagger.diff.compare;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.deepoove.swagger.diff.model.ChangedEndpoint;
 import com.deepoove.swagger.diff.model.ChangedOperation;
 import com.deepoove.swagger.diff.model.Endpoint;
 
 import io.swagger.models.HttpMethod;
+import io.swagger.models.Model;
 import io.swagger.models.Operation;
 import io.swagger.models.Path;
-import io.swagger.models.Response;
 import io.swagger.models.Swagger;
 import io.swagger.models.parameters.Parameter;
-import io.swagger.models.properties.Property;
 
 /**
  * compare two Swagger
+ * <p>
+ * Paths, operations and definitions with the same {@link SpecFingerprint} in
+ * both docs are skipped. The fingerprint is kept by the {@link PreparedSpec},
+ * a doc compared many times is hashed once, but a single comparison of two
+ * docs pays the hashing of both, which takes longer than comparing them in
+ * full. Compared with the previous new doc of an earlier diff, only the paths
+ * and operations changed since then are compared again.
+ * A path whose url only differs by the names of its path parameters is
+ * compared with the old path, see {@link PathDiff}.
+ * <p>
+ * A lazy diff, see {@link #lazy(PreparedSpec, PreparedSpec)}, finds the added
+ * and removed endpoints at once and compares each shared path the first time
+ * the changed endpoints reach it.
  * 
  * @author Sayi
  *
@@ -30,74 +51,148 @@ public class SpecificationDiff {
 	private List<Endpoint> newEndpoints;
 	private List<Endpoint> missingEndpoints;
 	private List<ChangedEndpoint> changedEndpoints;
+	private DefinitionDiff definitionDiff;
+
+	private PreparedSpec oldSpec;
+	private PreparedSpec newSpec;
+	// lazy diff only: the shared paths by position and their diffs, null until
+	// compared
+	private boolean lazy;
+	private List<String> sharedOldUrls;
+	private List<String> sharedNewUrls;
+	private ChangedEndpoint[] sharedResults;
+	// diff of each shared path by old and new url, to be reused by a later diff
+	private Map<String, ChangedEndpoint> pathResults;
+	// earlier diff with the same old doc, only set while comparing
+	private SpecificationDiff previous;
+
+	private Map<String, Model> oldDefinitions;
+	private Map<String, Model> newDefinitions;
+	private DefinitionIndex oldIndex;
+	private DefinitionIndex newIndex;
+	private SpecFingerprint oldFingerprint;
+	private SpecFingerprint newFingerprint;
+	private DefinitionDiffCache cache;
+	// fail fast check, only set while checking
+	private CompatibilityCheck check;
+
+	private final AtomicInteger skippedOperations = new AtomicInteger();
+	private final AtomicInteger comparedOperations = new AtomicInteger();
+	private final AtomicInteger reusedOperations = new AtomicInteger();
 
 	private SpecificationDiff() {
 	}
 
 	public static SpecificationDiff diff(Swagger oldSpec, Swagger newSpec) {
+		return diff(oldSpec, newSpec, null);
+	}
+
+	/**
+	 * compare two Swagger, the shared paths are compared by the tasks run on
+	 * executor and the result keeps the order of the paths
+	 * 
+	 * @param oldSpec
+	 * @param newSpec
+	 * @param executor
+	 *            runs the comparison of the shared paths, null to compare
+	 *            them in the calling thread
+	 */
+	public static SpecificationDiff diff(Swagger oldSpec, Swagger newSpec, Executor executor) {
+		if (null == oldSpec || null == newSpec) {
+			throw new IllegalArgumentException("cannot diff null spec.");
+		}
+		return diff(PreparedSpec.of(oldSpec), PreparedSpec.of(newSpec), executor);
+	}
+
+	/**
+	 * compare two prepared Swagger
+	 * 
+	 * @param oldSpec
+	 * @param newSpec
+	 * @param executor
+	 *            runs the comparison of the shared paths, null to compare
+	 *            them in the calling thread
+	 */
+	public static SpecificationDiff diff(PreparedSpec oldSpec, PreparedSpec newSpec, Executor executor) {
+		return diff(oldSpec, newSpec, executor, new DefinitionDiffCache());
+	}
+
+	/**
+	 * compare two prepared Swagger, sharing the diffs of the definitions with
+	 * the other comparisons using the same cache
+	 * 
+	 * @param oldSpec
+	 * @param newSpec
+	 * @param executor
+	 *            runs the comparison of the shared paths, null to compare
+	 *            them in the calling thread
+	 * @param cache
+	 *            diffs of the definitions by fingerprint, see
+	 *            {@link DefinitionDiffCache#forSpecs(PreparedSpec, PreparedSpec)}
+	 */
+	public static SpecificationDiff diff(PreparedSpec oldSpec, PreparedSpec newSpec, Executor executor,
+			DefinitionDiffCache cache) {
+		return diff(oldSpec, newSpec, executor, cache, null);
+	}
+
+	/**
+	 * compare the old doc of an earlier diff with a new doc, the paths and
+	 * operations which did not change since the new doc of the earlier diff
+	 * take its result instead of being compared again
+	 * 
+	 * @param previous
+	 *            earlier diff of the same old doc
+	 * @param newSpec
+	 * @param executor
+	 *            runs the comparison of the shared paths, null to compare
+	 *            them in the calling thread
+	 */
+	public static SpecificationDiff diff(SpecificationDiff previous, PreparedSpec newSpec, Executor executor) {
+		if (null == previous) {
+			throw new IllegalArgumentException("cannot diff without previous diff.");
+		}
+		// the later diff reads every path result of the previous one
+		previous.getChangedEndpoints();
+		DefinitionDiffCache cache = null == previous.cache ? new DefinitionDiffCache() : previous.cache;
+		return diff(previous.oldSpec, newSpec, executor, cache, previous);
+	}
+
+	private static SpecificationDiff diff(PreparedSpec oldSpec, PreparedSpec newSpec, Executor executor,
+			DefinitionDiffCache cache, SpecificationDiff previous) {
 		SpecificationDiff instance = new SpecificationDiff();
 		if (null == oldSpec || null == newSpec) {
 			throw new IllegalArgumentException("cannot diff null spec.");
 		}
+		instance.oldSpec = oldSpec;
+		instance.newSpec = newSpec;
+		instance.previous = previous;
+		instance.oldDefinitions = oldSpec.getDefinitions();
+		instance.newDefinitions = newSpec.getDefinitions();
+		instance.oldIndex = oldSpec.getDefinitionIndex();
+		instance.newIndex = newSpec.getDefinitionIndex();
+		instance.fingerprint(oldSpec, newSpec, cache);
+
 		Map<String, Path> oldPaths = oldSpec.getPaths();
 		Map<String, Path> newPaths = newSpec.getPaths();
-		MapKeyDiff<String, Path> pathDiff = MapKeyDiff.diff(oldPaths, newPaths);
+		PathDiff pathDiff = PathDiff.diff(oldPaths, newPaths);
 		instance.newEndpoints = convert2EndpointList(pathDiff.getIncreased());
 		instance.missingEndpoints = convert2EndpointList(pathDiff.getMissing());
 		instance.changedEndpoints = new ArrayList<ChangedEndpoint>();
+		instance.pathResults = new HashMap<String, ChangedEndpoint>();
 
-		List<String> sharedKey = pathDiff.getSharedKey();
-		ChangedEndpoint changedEndpoint = null;
-		for (String pathUrl : sharedKey) {
-			changedEndpoint = new ChangedEndpoint();
-			changedEndpoint.setPathUrl(pathUrl);
-			Path oldPath = oldPaths.get(pathUrl);
-			Path newPath = newPaths.get(pathUrl);
-
-			Map<HttpMethod, Operation> oldOperationMap = oldPath.getOperationMap();
-			Map<HttpMethod, Operation> newOperationMap = newPath.getOperationMap();
-			MapKeyDiff<HttpMethod, Operation> operationDiff = MapKeyDiff.diff(oldOperationMap, newOperationMap);
-			Map<HttpMethod, Operation> increasedOperation = operationDiff.getIncreased();
-			Map<HttpMethod, Operation> missingOperation = operationDiff.getMissing();
-			changedEndpoint.setNewOperations(increasedOperation);
-			changedEndpoint.setMissingOperations(missingOperation);
-
-			List<HttpMethod> sharedMethods = operationDiff.getSharedKey();
-			Map<HttpMethod, ChangedOperation> operas = new HashMap<HttpMethod, ChangedOperation>();
-			ChangedOperation changedOperation = null;
-			for (HttpMethod method : sharedMethods) {
-				changedOperation = new ChangedOperation();
-				Operation oldOperation = oldOperationMap.get(method);
-				Operation newOperation = newOperationMap.get(method);
-				changedOperation.setSummary(newOperation.getSummary());
-
-				List<Parameter> oldParameters = oldOperation.getParameters();
-				List<Parameter> newParameters = newOperation.getParameters();
-				ParameterDiff parameterDiff = ParameterDiff
-						.buildWithDefinition(oldSpec.getDefinitions(), newSpec.getDefinitions())
-						.diff(oldParameters, newParameters);
-				changedOperation.setAddParameters(parameterDiff.getIncreased());
-				changedOperation.setMissingParameters(parameterDiff.getMissing());
-				changedOperation.setChangedParameter(parameterDiff.getChanged());
-
-				Property oldResponseProperty = getResponseProperty(oldOperation);
-				Property newResponseProperty = getResponseProperty(newOperation);
-				PropertyDiff propertyDiff = PropertyDiff.buildWithDefinition(oldSpec.getDefinitions(),
-						newSpec.getDefinitions());
-				propertyDiff.diff(oldResponseProperty, newResponseProperty);
-				changedOperation.setAddProps(propertyDiff.getIncreased());
-				changedOperation.setMissingProps(propertyDiff.getMissing());
-
-				if (changedOperation.isDiff()) {
-					operas.put(method, changedOperation);
-				}
-			}
-			changedEndpoint.setChangedOperations(operas);
-
+		List<String> oldUrls = pathDiff.getSharedOldUrls();
+		List<String> newUrls = pathDiff.getSharedNewUrls();
+		ChangedEndpoint[] changedPaths = null == executor
+				? instance.diffPaths(oldUrls, newUrls, oldPaths, newPaths)
+				: instance.diffPaths(oldUrls, newUrls, oldPaths, newPaths, executor);
+		instance.previous = null;
+		for (int i = 0; i < changedPaths.length; i++) {
+			ChangedEndpoint changedEndpoint = changedPaths[i];
+			instance.pathResults.put(resultKey(oldUrls.get(i), newUrls.get(i)), changedEndpoint);
 			instance.newEndpoints
 					.addAll(convert2EndpointList(changedEndpoint.getPathUrl(), changedEndpoint.getNewOperations()));
 			instance.missingEndpoints
-					.addAll(convert2EndpointList(changedEndpoint.getPathUrl(), changedEndpoint.getMissingOperations()));
+					.addAll(convert2EndpointList(oldUrls.get(i), changedEndpoint.getMissingOperations()));
 
 			if (changedEndpoint.isDiff()) {
 				instance.changedEndpoints.add(changedEndpoint);
@@ -108,13 +203,300 @@ public class SpecificationDiff {
 
 	}
 
-	private static Property getResponseProperty(Operation operation) {
-		Map<String, Response> responses = operation.getResponses();
-		// temporary workaround for missing response messages
-		if (responses == null)
-			return null;
-		Response response = responses.get("200");
-		return null == response ? null : response.getSchema();
+	/**
+	 * prepare the comparison of two docs without comparing their shared
+	 * paths: the added and removed endpoints are found at once, a shared path
+	 * is compared the first time {@link #changedEndpoints()} reaches it and
+	 * its diff is kept, the definitions are compared the first time
+	 * {@link #getDefinitionDiff()} is called
+	 * 
+	 * @param oldSpec
+	 * @param newSpec
+	 */
+	public static SpecificationDiff lazy(PreparedSpec oldSpec, PreparedSpec newSpec) {
+		if (null == oldSpec || null == newSpec) {
+			throw new IllegalArgumentException("cannot diff null spec.");
+		}
+		SpecificationDiff instance = new SpecificationDiff();
+		instance.lazy = true;
+		instance.oldSpec = oldSpec;
+		instance.newSpec = newSpec;
+		instance.oldDefinitions = oldSpec.getDefinitions();
+		instance.newDefinitions = newSpec.getDefinitions();
+		instance.oldIndex = oldSpec.getDefinitionIndex();
+		instance.newIndex = newSpec.getDefinitionIndex();
+
+		Map<String, Path> oldPaths = oldSpec.getPaths();
+		Map<String, Path> newPaths = newSpec.getPaths();
+		PathDiff pathDiff = PathDiff.diff(oldPaths, newPaths);
+		instance.newEndpoints = convert2EndpointList(pathDiff.getIncreased());
+		instance.missingEndpoints = convert2EndpointList(pathDiff.getMissing());
+		instance.sharedOldUrls = pathDiff.getSharedOldUrls();
+		instance.sharedNewUrls = pathDiff.getSharedNewUrls();
+		instance.sharedResults = new ChangedEndpoint[instance.sharedOldUrls.size()];
+		instance.pathResults = new HashMap<String, ChangedEndpoint>();
+		for (int i = 0; i < instance.sharedOldUrls.size(); i++) {
+			String oldUrl = instance.sharedOldUrls.get(i);
+			String pathUrl = instance.sharedNewUrls.get(i);
+			// the methods only, the operations are compared with the path
+			MapKeyDiff<HttpMethod, Operation> operationDiff = MapKeyDiff.diff(
+					oldPaths.get(oldUrl).getOperationMap(), newPaths.get(pathUrl).getOperationMap());
+			instance.newEndpoints.addAll(convert2EndpointList(pathUrl, operationDiff.getIncreased()));
+			instance.missingEndpoints.addAll(convert2EndpointList(oldUrl, operationDiff.getMissing()));
+		}
+		return instance;
+	}
+
+	/**
+	 * @return diff of the shared path at index, compared on the first call
+	 */
+	private synchronized ChangedEndpoint sharedResult(int index) {
+		ChangedEndpoint changedEndpoint = sharedResults[index];
+		if (null == changedEndpoint) {
+			if (null == cache) {
+				fingerprint(oldSpec, newSpec, new DefinitionDiffCache());
+			}
+			String oldUrl = sharedOldUrls.get(index);
+			String pathUrl = sharedNewUrls.get(index);
+			changedEndpoint = diffPath(oldUrl, pathUrl, oldSpec.getPaths().get(oldUrl),
+					newSpec.getPaths().get(pathUrl));
+			sharedResults[index] = changedEndpoint;
+			pathResults.put(resultKey(oldUrl, pathUrl), changedEndpoint);
+		}
+		return changedEndpoint;
+	}
+
+	/**
+	 * @return the changed endpoints, a lazy diff compares a shared path when
+	 *         the iteration reaches it
+	 */
+	public Iterable<ChangedEndpoint> changedEndpoints() {
+		if (!lazy) return changedEndpoints;
+		return new Iterable<ChangedEndpoint>() {
+			public Iterator<ChangedEndpoint> iterator() {
+				return new Iterator<ChangedEndpoint>() {
+					private int index;
+					private ChangedEndpoint next;
+
+					public boolean hasNext() {
+						while (null == next && index < sharedResults.length) {
+							ChangedEndpoint changedEndpoint = sharedResult(index++);
+							if (changedEndpoint.isDiff()) next = changedEndpoint;
+						}
+						return null != next;
+					}
+
+					public ChangedEndpoint next() {
+						if (!hasNext()) throw new NoSuchElementException();
+						ChangedEndpoint changedEndpoint = next;
+						next = null;
+						return changedEndpoint;
+					}
+
+					public void remove() {
+						throw new UnsupportedOperationException();
+					}
+				};
+			}
+		};
+	}
+
+	/**
+	 * compare two docs until the check finds a breaking change, the removed
+	 * endpoints are checked before any operation is compared
+	 */
+	static void check(PreparedSpec oldSpec, PreparedSpec newSpec, CompatibilityCheck check) {
+		SpecificationDiff instance = new SpecificationDiff();
+		instance.oldDefinitions = oldSpec.getDefinitions();
+		instance.newDefinitions = newSpec.getDefinitions();
+		instance.oldIndex = oldSpec.getDefinitionIndex();
+		instance.newIndex = newSpec.getDefinitionIndex();
+		instance.fingerprint(oldSpec, newSpec, new DefinitionDiffCache());
+		instance.check = check;
+
+		Map<String, Path> oldPaths = oldSpec.getPaths();
+		Map<String, Path> newPaths = newSpec.getPaths();
+		PathDiff pathDiff = PathDiff.diff(oldPaths, newPaths);
+		for (Endpoint endpoint : convert2EndpointList(pathDiff.getMissing())) {
+			check.endpoint(endpoint.getPathUrl(), endpoint.getMethod());
+			if (check.isDone()) return;
+		}
+		List<String> oldUrls = pathDiff.getSharedOldUrls();
+		List<String> newUrls = pathDiff.getSharedNewUrls();
+		for (int i = 0; i < oldUrls.size(); i++) {
+			String oldUrl = oldUrls.get(i);
+			String pathUrl = newUrls.get(i);
+			if (SpecFingerprint.same(instance.oldFingerprint.path(oldUrl),
+					instance.newFingerprint.path(pathUrl))) {
+				continue;
+			}
+			Map<HttpMethod, Operation> newOperationMap = newPaths.get(pathUrl).getOperationMap();
+			for (HttpMethod method : oldPaths.get(oldUrl).getOperationMap().keySet()) {
+				if (!newOperationMap.containsKey(method)) {
+					check.endpoint(oldUrl, method);
+					if (check.isDone()) return;
+				}
+			}
+		}
+		for (int i = 0; i < oldUrls.size(); i++) {
+			instance.diffPath(oldUrls.get(i), newUrls.get(i), oldPaths.get(oldUrls.get(i)),
+					newPaths.get(newUrls.get(i)));
+			if (check.isDone()) return;
+		}
+	}
+
+	private ChangedEndpoint[] diffPaths(List<String> oldUrls, List<String> newUrls,
+			Map<String, Path> oldPaths, Map<String, Path> newPaths) {
+		ChangedEndpoint[] result = new ChangedEndpoint[oldUrls.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = diffPath(oldUrls.get(i), newUrls.get(i), oldPaths.get(oldUrls.get(i)),
+					newPaths.get(newUrls.get(i)));
+		}
+		return result;
+	}
+
+	private ChangedEndpoint[] diffPaths(final List<String> oldUrls, final List<String> newUrls,
+			final Map<String, Path> oldPaths, final Map<String, Path> newPaths, Executor executor) {
+		final ChangedEndpoint[] result = new ChangedEndpoint[oldUrls.size()];
+		int chunks = Math.min(result.length, Runtime.getRuntime().availableProcessors() * 4);
+		List<FutureTask<Void>> tasks = new ArrayList<FutureTask<Void>>(chunks);
+		for (int chunk = 0; chunk < chunks; chunk++) {
+			final int from = (int) ((long) result.length * chunk / chunks);
+			final int to = (int) ((long) result.length * (chunk + 1) / chunks);
+			FutureTask<Void> task = new FutureTask<Void>(new Callable<Void>() {
+				public Void call() {
+					for (int i = from; i < to; i++) {
+						result[i] = diffPath(oldUrls.get(i), newUrls.get(i), oldPaths.get(oldUrls.get(i)),
+								newPaths.get(newUrls.get(i)));
+					}
+					return null;
+				}
+			});
+			tasks.add(task);
+			executor.execute(task);
+		}
+		try {
+			for (FutureTask<Void> task : tasks) {
+				task.get();
+			}
+		} catch (InterruptedException e) {
+			for (FutureTask<Void> task : tasks) {
+				task.cancel(true);
+			}
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted while comparing paths.", e);
+		} catch (ExecutionException e) {
+			for (FutureTask<Void> task : tasks) {
+				task.cancel(true);
+			}
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			if (cause instanceof Error) throw (Error) cause;
+			throw new IllegalStateException("cannot compare paths.", cause);
+		}
+		return result;
+	}
+
+	/**
+	 * @param oldUrl
+	 *            url of the path in the old doc
+	 * @param pathUrl
+	 *            url of the path in the new doc
+	 */
+	private ChangedEndpoint diffPath(String oldUrl, String pathUrl, Path oldPath, Path newPath) {
+		ChangedEndpoint changedEndpoint = new ChangedEndpoint();
+		changedEndpoint.setPathUrl(pathUrl);
+		changedEndpoint.setOldPathUrl(oldUrl);
+
+		if (SpecFingerprint.same(oldFingerprint.path(oldUrl), newFingerprint.path(pathUrl))) {
+			skippedOperations.addAndGet(oldPath.getOperations().size());
+			changedEndpoint.setNewOperations(Collections.<HttpMethod, Operation> emptyMap());
+			changedEndpoint.setMissingOperations(Collections.<HttpMethod, Operation> emptyMap());
+			changedEndpoint.setChangedOperations(Collections.<HttpMethod, ChangedOperation> emptyMap());
+			return changedEndpoint;
+		}
+		ChangedEndpoint previousEndpoint = null == previous ? null
+				: previous.pathResults.get(resultKey(oldUrl, pathUrl));
+		if (null != previousEndpoint
+				&& SpecFingerprint.same(newFingerprint.path(pathUrl), previous.newFingerprint.path(pathUrl))) {
+			reusedOperations.addAndGet(newPath.getOperations().size());
+			return previousEndpoint;
+		}
+
+		Map<HttpMethod, Operation> oldOperationMap = oldPath.getOperationMap();
+		Map<HttpMethod, Operation> newOperationMap = newPath.getOperationMap();
+		MapKeyDiff<HttpMethod, Operation> operationDiff = MapKeyDiff.diff(oldOperationMap, newOperationMap);
+		Map<HttpMethod, Operation> increasedOperation = operationDiff.getIncreased();
+		Map<HttpMethod, Operation> missingOperation = operationDiff.getMissing();
+		changedEndpoint.setNewOperations(increasedOperation);
+		changedEndpoint.setMissingOperations(missingOperation);
+
+		Map<String, String> renamed = PathDiff.renamedParameters(oldUrl, pathUrl);
+		List<HttpMethod> sharedMethods = operationDiff.getSharedKey();
+		Map<HttpMethod, ChangedOperation> operas = new LinkedHashMap<HttpMethod, ChangedOperation>();
+		ChangedOperation changedOperation = null;
+		for (HttpMethod method : sharedMethods) {
+			if (SpecFingerprint.same(oldFingerprint.operation(oldUrl, method),
+					newFingerprint.operation(pathUrl, method))) {
+				skippedOperations.incrementAndGet();
+				continue;
+			}
+			if (null != previousEndpoint && SpecFingerprint.same(newFingerprint.operation(pathUrl, method),
+					previous.newFingerprint.operation(pathUrl, method))) {
+				reusedOperations.incrementAndGet();
+				// the operation had no difference if it has no changed operation
+				ChangedOperation previousOperation = previousEndpoint.getChangedOperations().get(method);
+				if (null != previousOperation) {
+					operas.put(method, previousOperation);
+				}
+				continue;
+			}
+			comparedOperations.incrementAndGet();
+			changedOperation = new ChangedOperation();
+			Operation oldOperation = oldOperationMap.get(method);
+			Operation newOperation = newOperationMap.get(method);
+			changedOperation.setSummary(newOperation.getSummary());
+
+			List<Parameter> oldParameters = oldOperation.getParameters();
+			List<Parameter> newParameters = newOperation.getParameters();
+			ParameterDiff parameterDiff = ParameterDiff
+					.buildWithIndex(oldIndex, newIndex, cache)
+					.diff(oldParameters, newParameters, renamed);
+			changedOperation.setAddParameters(parameterDiff.getIncreased());
+			changedOperation.setMissingParameters(parameterDiff.getMissing());
+			changedOperation.setChangedParameter(parameterDiff.getChanged());
+
+			ResponseDiff responseDiff = ResponseDiff
+					.buildWithIndex(oldIndex, newIndex, cache)
+					.diff(oldOperation.getResponses(), newOperation.getResponses());
+			changedOperation.setAddResponses(responseDiff.getIncreased());
+			changedOperation.setMissingResponses(responseDiff.getMissing());
+			changedOperation.setChangedResponses(responseDiff.getChanged());
+
+			if (changedOperation.isDiff()) {
+				operas.put(method, changedOperation);
+			}
+			if (null != check) {
+				check.operation(pathUrl, method, changedOperation);
+				if (check.isDone()) break;
+			}
+		}
+		changedEndpoint.setChangedOperations(operas);
+		return changedEndpoint;
+	}
+
+	/**
+	 * read the fingerprints of both docs, the diffs of the definitions are
+	 * shared through the cache
+	 */
+	private void fingerprint(PreparedSpec oldSpec, PreparedSpec newSpec, DefinitionDiffCache shared) {
+		oldFingerprint = oldSpec.getFingerprint();
+		newFingerprint = newSpec.getFingerprint();
+		cache = shared.forSpecs(oldSpec, newSpec);
+	}
+
+	private static String resultKey(String oldUrl, String newUrl) {
+		return oldUrl.equals(newUrl) ? newUrl : oldUrl + " " + newUrl;
 	}
 
 	private static List<Endpoint> convert2EndpointList(Map<String, Path> map) {
@@ -167,8 +549,69 @@ public class SpecificationDiff {
 		return missingEndpoints;
 	}
 
-	public List<ChangedEndpoint> getChangedEndpoints() {
+	/**
+	 * @return the changed endpoints, a lazy diff compares all of its shared
+	 *         paths on the first call
+	 */
+	public synchronized List<ChangedEndpoint> getChangedEndpoints() {
+		if (null == changedEndpoints) {
+			List<ChangedEndpoint> result = new ArrayList<ChangedEndpoint>();
+			for (ChangedEndpoint changedEndpoint : changedEndpoints()) {
+				result.add(changedEndpoint);
+			}
+			changedEndpoints = result;
+		}
 		return changedEndpoints;
 	}
 
+	/**
+	 * @return the definitions added, removed and renamed, compared on the
+	 *         first call: a check or a diff which does not render them skips
+	 *         the rename detection
+	 */
+	public synchronized DefinitionDiff getDefinitionDiff() {
+		if (null == definitionDiff) {
+			definitionDiff = DefinitionDiff.diff(oldDefinitions, newDefinitions);
+		}
+		return definitionDiff;
+	}
+
+	/**
+	 * @return count of the shared operations skipped because of the same
+	 *         fingerprint
+	 */
+	public int getSkippedOperations() {
+		return skippedOperations.get();
+	}
+
+	/**
+	 * @return count of the shared operations compared
+	 */
+	public int getComparedOperations() {
+		return comparedOperations.get();
+	}
+
+	/**
+	 * @return count of the shared operations which took the result of the
+	 *         previous diff
+	 */
+	public int getReusedOperations() {
+		return reusedOperations.get();
+	}
+
+	/**
+	 * @return count of the definition pairs skipped because of the same
+	 *         fingerprint
+	 */
+	public int getSkippedDefinitions() {
+		return null == cache ? 0 : cache.getSkipped();
+	}
+
+	/**
+	 * @return count of the definition pairs compared
+	 */
+	public int getComparedDefinitions() {
+		return null == cache ? 0 : cache.getCompared();
+	}
+
 }
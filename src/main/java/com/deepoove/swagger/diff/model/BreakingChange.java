@@ -0,0 +1,68 @@
+package com.deepoove.swagger.diff.model;
+
+import io.swagger.models.HttpMethod;
+
+/**
+ * change which breaks the clients of the old doc
+ * @author Sayi
+ * @version
+ */
+public class BreakingChange {
+
+	// name of the rule which found the change
+	private String rule;
+
+	private String pathUrl;
+	private HttpMethod method;
+
+	// parameter name, property el or header name, null for an endpoint
+	private String el;
+
+	private String message;
+
+	public String getRule() {
+		return rule;
+	}
+
+	public void setRule(String rule) {
+		this.rule = rule;
+	}
+
+	public String getPathUrl() {
+		return pathUrl;
+	}
+
+	public void setPathUrl(String pathUrl) {
+		this.pathUrl = pathUrl;
+	}
+
+	public HttpMethod getMethod() {
+		return method;
+	}
+
+	public void setMethod(HttpMethod method) {
+		this.method = method;
+	}
+
+	public String getEl() {
+		return el;
+	}
+
+	public void setEl(String el) {
+		this.el = el;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public void setMessage(String message) {
+		this.message = message;
+	}
+
+	@Override
+	public String toString() {
+		return method + " " + pathUrl + " " + message;
+	}
+
+}
@@ -0,0 +1,53 @@
+package com.deepoove.swagger.diff.model;
+
+/**
+ * attribute of a property with another value in the new doc, like its type,
+ * format, enum or a constraint
+ * @author Sayi
+ * @version 
+ */
+public class ChangedAttribute {
+
+	private String name;
+
+	private Object oldValue;
+	private Object newValue;
+
+	public ChangedAttribute() {}
+
+	public ChangedAttribute(String name, Object oldValue, Object newValue) {
+		this.name = name;
+		this.oldValue = oldValue;
+		this.newValue = newValue;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public Object getOldValue() {
+		return oldValue;
+	}
+
+	public void setOldValue(Object oldValue) {
+		this.oldValue = oldValue;
+	}
+
+	public Object getNewValue() {
+		return newValue;
+	}
+
+	public void setNewValue(Object newValue) {
+		this.newValue = newValue;
+	}
+
+	@Override
+	public String toString() {
+		return name + " " + oldValue + " to " + newValue;
+	}
+
+}
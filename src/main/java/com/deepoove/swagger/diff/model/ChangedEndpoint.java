@@ -8,6 +8,8 @@ import io.swagger.models.Operation;
 public class ChangedEndpoint implements Changed{
 
 	private String pathUrl;
+	// url in the old doc, another one if only the names of the path parameters changed
+	private String oldPathUrl;
 
 	private Map<HttpMethod, Operation> newOperations;
 	private Map<HttpMethod, Operation> missingOperations;
@@ -49,6 +51,14 @@ public class ChangedEndpoint implements Changed{
 		this.pathUrl = pathUrl;
 	}
 
+	public String getOldPathUrl() {
+		return oldPathUrl;
+	}
+
+	public void setOldPathUrl(String oldPathUrl) {
+		this.oldPathUrl = oldPathUrl;
+	}
+
 	public boolean isDiff() {
 //		newOperations.isEmpty() 
 //		|| !missingOperations.isEmpty()
@@ -1,12 +1,19 @@
 package com.deepoove.swagger.diff.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import io.swagger.models.Response;
 import io.swagger.models.parameters.Parameter;
 
 public class ChangedOperation implements Changed {
 
+	// status code of the response read as the return type
+	public static final String RETURN_TYPE_CODE = "200";
+
 	private String summary;
 
 	private List<Parameter> addParameters = new ArrayList<Parameter>();
@@ -14,8 +21,10 @@ public class ChangedOperation implements Changed {
 
 	private List<ChangedParameter> changedParameter = new ArrayList<ChangedParameter>();
 
-	private List<ElProperty> addProps = new ArrayList<ElProperty>();
-	private List<ElProperty> missingProps = new ArrayList<ElProperty>();
+	// responses by status code, the props of 200 are the return type
+	private Map<String, Response> addResponses = new LinkedHashMap<String, Response>();
+	private Map<String, Response> missingResponses = new LinkedHashMap<String, Response>();
+	private List<ChangedResponse> changedResponses = new ArrayList<ChangedResponse>();
 
 	public List<Parameter> getAddParameters() {
 		return addParameters;
@@ -41,20 +50,80 @@ public class ChangedOperation implements Changed {
 		this.changedParameter = changedParameter;
 	}
 
+	/**
+	 * @return the props added to the response of 200
+	 */
 	public List<ElProperty> getAddProps() {
-		return addProps;
+		ChangedResponse response = getReturnType();
+		return null == response ? Collections.<ElProperty> emptyList() : response.getAddProps();
 	}
 
 	public void setAddProps(List<ElProperty> addProps) {
-		this.addProps = addProps;
+		returnType().setAddProps(addProps);
 	}
 
+	/**
+	 * @return the props missing from the response of 200
+	 */
 	public List<ElProperty> getMissingProps() {
-		return missingProps;
+		ChangedResponse response = getReturnType();
+		return null == response ? Collections.<ElProperty> emptyList() : response.getMissingProps();
 	}
 
 	public void setMissingProps(List<ElProperty> missingProps) {
-		this.missingProps = missingProps;
+		returnType().setMissingProps(missingProps);
+	}
+
+	/**
+	 * @return the props of the response of 200 with changed attributes
+	 */
+	public List<ElProperty> getChangedProps() {
+		ChangedResponse response = getReturnType();
+		return null == response ? Collections.<ElProperty> emptyList() : response.getChangedProps();
+	}
+
+	/**
+	 * @return the response of 200 found in both operations, null if none
+	 */
+	public ChangedResponse getReturnType() {
+		for (ChangedResponse response : changedResponses) {
+			if (RETURN_TYPE_CODE.equals(response.getCode())) return response;
+		}
+		return null;
+	}
+
+	private ChangedResponse returnType() {
+		ChangedResponse response = getReturnType();
+		if (null == response) {
+			response = new ChangedResponse();
+			response.setCode(RETURN_TYPE_CODE);
+			changedResponses.add(response);
+		}
+		return response;
+	}
+
+	public Map<String, Response> getAddResponses() {
+		return addResponses;
+	}
+
+	public void setAddResponses(Map<String, Response> addResponses) {
+		this.addResponses = addResponses;
+	}
+
+	public Map<String, Response> getMissingResponses() {
+		return missingResponses;
+	}
+
+	public void setMissingResponses(Map<String, Response> missingResponses) {
+		this.missingResponses = missingResponses;
+	}
+
+	public List<ChangedResponse> getChangedResponses() {
+		return changedResponses;
+	}
+
+	public void setChangedResponses(List<ChangedResponse> changedResponses) {
+		this.changedResponses = changedResponses;
 	}
 
 	public String getSummary() {
@@ -66,13 +135,21 @@ public class ChangedOperation implements Changed {
 	}
 
 	public boolean isDiff() {
-		return !addParameters.isEmpty() || !missingParameters.isEmpty()
-				|| !changedParameter.isEmpty() || !addProps.isEmpty()
-				|| !missingProps.isEmpty();
+		return isDiffParam() || isDiffResponse();
 	}
+	/**
+	 * @return true if the props of the response of 200 changed
+	 */
 	public boolean isDiffProp(){
-		return !addProps.isEmpty()
-				|| !missingProps.isEmpty();
+		ChangedResponse response = getReturnType();
+		return null != response && response.isDiffProp();
+	}
+	public boolean isDiffResponse(){
+		if (!addResponses.isEmpty() || !missingResponses.isEmpty()) return true;
+		for (ChangedResponse response : changedResponses) {
+			if (response.isDiff()) return true;
+		}
+		return false;
 	}
 	public boolean isDiffParam(){
 		return !addParameters.isEmpty() || !missingParameters.isEmpty()
@@ -9,14 +9,26 @@ public class ChangedParameter implements Changed {
 	
 	private List<ElProperty> increased = new ArrayList<ElProperty>();
 	private List<ElProperty> missing = new ArrayList<ElProperty>();;
+	private List<ElProperty> changed = new ArrayList<ElProperty>();
 
 	private Parameter leftParameter;
 	private Parameter rightParameter;
 
+	// path parameter renamed with the url of its path
+	private boolean isChangeName;
 	private boolean isChangeRequired;
-	// private boolean isChangeType;
+	// type, format or enum of a non body parameter
+	private boolean isChangeType;
 	private boolean isChangeDescription;
 
+	public boolean isChangeName() {
+		return isChangeName;
+	}
+
+	public void setChangeName(boolean isChangeName) {
+		this.isChangeName = isChangeName;
+	}
+
 	public boolean isChangeRequired() {
 		return isChangeRequired;
 	}
@@ -25,6 +37,14 @@ public class ChangedParameter implements Changed {
 		this.isChangeRequired = isChangeRequired;
 	}
 
+	public boolean isChangeType() {
+		return isChangeType;
+	}
+
+	public void setChangeType(boolean isChangeType) {
+		this.isChangeType = isChangeType;
+	}
+
 	public boolean isChangeDescription() {
 		return isChangeDescription;
 	}
@@ -50,7 +70,8 @@ public class ChangedParameter implements Changed {
 	}
 
 	public boolean isDiff() {
-		return isChangeRequired || isChangeDescription || !increased.isEmpty() || !missing.isEmpty();
+		return isChangeName || isChangeRequired || isChangeType || isChangeDescription || !increased.isEmpty() || !missing.isEmpty()
+				|| !changed.isEmpty();
 	}
 
 	public List<ElProperty> getIncreased() {
@@ -68,6 +89,14 @@ public class ChangedParameter implements Changed {
 	public void setMissing(List<ElProperty> missing) {
 		this.missing = missing;
 	}
+
+	public List<ElProperty> getChanged() {
+		return changed;
+	}
+
+	public void setChanged(List<ElProperty> changed) {
+		this.changed = changed;
+	}
 	
 
 }
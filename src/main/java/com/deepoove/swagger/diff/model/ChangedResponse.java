@@ -0,0 +1,116 @@
+package com.deepoove.swagger.diff.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.swagger.models.Response;
+
+/**
+ * response of one status code found in both operations
+ * @author Sayi
+ * @version 
+ */
+public class ChangedResponse implements Changed {
+
+	private String code;
+
+	private Response leftResponse;
+	private Response rightResponse;
+
+	private List<ElProperty> addProps = new ArrayList<ElProperty>();
+	private List<ElProperty> missingProps = new ArrayList<ElProperty>();
+	private List<ElProperty> changedProps = new ArrayList<ElProperty>();
+
+	// el of a header is its name
+	private List<ElProperty> addHeaders = new ArrayList<ElProperty>();
+	private List<ElProperty> missingHeaders = new ArrayList<ElProperty>();
+	private List<ElProperty> changedHeaders = new ArrayList<ElProperty>();
+
+	public String getCode() {
+		return code;
+	}
+
+	public void setCode(String code) {
+		this.code = code;
+	}
+
+	public Response getLeftResponse() {
+		return leftResponse;
+	}
+
+	public void setLeftResponse(Response leftResponse) {
+		this.leftResponse = leftResponse;
+	}
+
+	public Response getRightResponse() {
+		return rightResponse;
+	}
+
+	public void setRightResponse(Response rightResponse) {
+		this.rightResponse = rightResponse;
+	}
+
+	public List<ElProperty> getAddProps() {
+		return addProps;
+	}
+
+	public void setAddProps(List<ElProperty> addProps) {
+		this.addProps = addProps;
+	}
+
+	public List<ElProperty> getMissingProps() {
+		return missingProps;
+	}
+
+	public void setMissingProps(List<ElProperty> missingProps) {
+		this.missingProps = missingProps;
+	}
+
+	public List<ElProperty> getChangedProps() {
+		return changedProps;
+	}
+
+	public void setChangedProps(List<ElProperty> changedProps) {
+		this.changedProps = changedProps;
+	}
+
+	public List<ElProperty> getAddHeaders() {
+		return addHeaders;
+	}
+
+	public void setAddHeaders(List<ElProperty> addHeaders) {
+		this.addHeaders = addHeaders;
+	}
+
+	public List<ElProperty> getMissingHeaders() {
+		return missingHeaders;
+	}
+
+	public void setMissingHeaders(List<ElProperty> missingHeaders) {
+		this.missingHeaders = missingHeaders;
+	}
+
+	/**
+	 * @return the headers found in both responses with changed attributes
+	 */
+	public List<ElProperty> getChangedHeaders() {
+		return changedHeaders;
+	}
+
+	public void setChangedHeaders(List<ElProperty> changedHeaders) {
+		this.changedHeaders = changedHeaders;
+	}
+
+	public boolean isDiff() {
+		return isDiffProp() || isDiffHeader();
+	}
+
+	public boolean isDiffProp() {
+		return !addProps.isEmpty() || !missingProps.isEmpty() || !changedProps.isEmpty();
+	}
+
+	public boolean isDiffHeader() {
+		return !addHeaders.isEmpty() || !missingHeaders.isEmpty() || !changedHeaders.isEmpty();
+	}
+
+}
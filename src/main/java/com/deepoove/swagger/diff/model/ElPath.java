@@ -0,0 +1,88 @@
+package com.deepoove.swagger.diff.model;
+
+import java.util.Map;
+
+/**
+ * el of a property as a node pointing to the el of its parent, the dotted
+ * string is only built when asked for
+ * <p>
+ * Properties under the same parent share the node of the parent, and the
+ * name of a node is the name the swagger model already holds, so a diff
+ * with many properties under a deep model keeps no copy of their prefixes.
+ *
+ * @author Sayi
+ * @version
+ */
+public final class ElPath {
+
+	private final ElPath parent;
+	private final String name;
+	private final int length;
+
+	/**
+	 * @param parent
+	 *            el of the parent, null for a top level property
+	 * @param name
+	 */
+	public ElPath(ElPath parent, String name) {
+		this.parent = parent;
+		this.name = name;
+		this.length = null == parent ? name.length() : parent.length + 1 + name.length();
+	}
+
+	/**
+	 * @return the el with a node for each part of the dotted string, null for
+	 *         null
+	 */
+	public static ElPath of(String el) {
+		if (null == el) return null;
+		ElPath path = null;
+		int start = 0;
+		for (int dot = el.indexOf('.'); -1 != dot; dot = el.indexOf('.', start)) {
+			path = new ElPath(path, el.substring(start, dot));
+			start = dot + 1;
+		}
+		return new ElPath(path, 0 == start ? el : el.substring(start));
+	}
+
+	/**
+	 * el of relative put under parent, the nodes already put under parent
+	 * are kept in rebased and shared
+	 *
+	 * @param parent
+	 *            null to return relative
+	 * @param relative
+	 * @param rebased
+	 *            relative node to node under parent
+	 */
+	public static ElPath rebase(ElPath parent, ElPath relative, Map<ElPath, ElPath> rebased) {
+		if (null == parent || null == relative) return null == relative ? parent : relative;
+		ElPath path = rebased.get(relative);
+		if (null == path) {
+			path = new ElPath(rebase(parent, relative.parent, rebased), relative.name);
+			rebased.put(relative, path);
+		}
+		return path;
+	}
+
+	public ElPath getParent() {
+		return parent;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public String toString() {
+		char[] chars = new char[length];
+		int end = length;
+		for (ElPath path = this; null != path; path = path.parent) {
+			end -= path.name.length();
+			path.name.getChars(0, path.name.length(), chars, end);
+			if (end > 0) chars[--end] = '.';
+		}
+		return new String(chars);
+	}
+
+}
@@ -1,5 +1,8 @@
 package com.deepoove.swagger.diff.model;
 
+import java.util.Collections;
+import java.util.List;
+
 import io.swagger.models.properties.Property;
 
 /**
@@ -9,10 +12,14 @@ import io.swagger.models.properties.Property;
  */
 public class ElProperty {
 
-	private String el;
+	private ElPath path;
 
 	private Property property;
 
+	// only for a property found in both docs with changed attributes
+	private Property leftProperty;
+	private List<ChangedAttribute> changedAttributes = Collections.emptyList();
+
 	public Property getProperty() {
 		return property;
 	}
@@ -21,12 +28,39 @@ public class ElProperty {
 		this.property = property;
 	}
 
+	/**
+	 * @return the dotted el, built on each call
+	 */
 	public String getEl() {
-		return el;
+		return null == path ? null : path.toString();
 	}
 
 	public void setEl(String el) {
-		this.el = el;
+		this.path = ElPath.of(el);
+	}
+
+	public ElPath getPath() {
+		return path;
+	}
+
+	public void setPath(ElPath path) {
+		this.path = path;
+	}
+
+	public Property getLeftProperty() {
+		return leftProperty;
+	}
+
+	public void setLeftProperty(Property leftProperty) {
+		this.leftProperty = leftProperty;
+	}
+
+	public List<ChangedAttribute> getChangedAttributes() {
+		return changedAttributes;
+	}
+
+	public void setChangedAttributes(List<ChangedAttribute> changedAttributes) {
+		this.changedAttributes = changedAttributes;
 	}
 
 }
@@ -1,19 +1,24 @@
 package com.deepoove.swagger.diff.output;
 
 import com.deepoove.swagger.diff.SwaggerDiff;
+import com.deepoove.swagger.diff.compare.DefinitionDiff;
 import com.deepoove.swagger.diff.model.*;
 import io.swagger.models.HttpMethod;
+import io.swagger.models.Response;
 import io.swagger.models.parameters.Parameter;
+import io.swagger.models.parameters.SerializableParameter;
 import io.swagger.models.properties.Property;
+import j2html.TagCreator;
 import j2html.tags.ContainerTag;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
 import static j2html.TagCreator.*;
 
-public class HtmlRender implements Render {
+public class HtmlRender implements StreamingRender {
 
     private String title;
     private String linkCss;
@@ -29,28 +34,61 @@ public class HtmlRender implements Render {
 
 
     public String render(SwaggerDiff diff) {
-        List<Endpoint> newEndpoints = diff.getNewEndpoints();
-        ContainerTag ol_newEndpoint = ol_newEndpoint(newEndpoints);
+        StringBuilder sb = new StringBuilder();
+        try {
+            render(diff, sb);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return sb.toString();
+    }
+
+    public void render(SwaggerDiff diff, Appendable out) throws IOException {
+        out.append(document().render()).append("<html lang=\"en\">");
+        head_page().render(out);
+        out.append("<body>");
+        header().with(h1(title)).render(out);
+        out.append("<div class=\"article\">");
+        div_headArticle("Versions", "versions", p_versions(diff.getOldVersion(), diff.getNewVersion())).render(out);
+
+        out.append("<div>");
+        h2_headArticle("What's New", "new").render(out);
+        hr().render(out);
+        out.append("<ol id=\"new\">");
+        ol_newEndpoint(diff.getNewEndpoints(), out);
+        out.append("</ol></div>");
 
-        List<Endpoint> missingEndpoints = diff.getMissingEndpoints();
-        ContainerTag ol_missingEndpoint = ol_missingEndpoint(missingEndpoints);
+        out.append("<div>");
+        h2_headArticle("What's Deprecated", "deprecated").render(out);
+        hr().render(out);
+        out.append("<ol id=\"deprecated\">");
+        ol_missingEndpoint(diff.getMissingEndpoints(), out);
+        out.append("</ol></div>");
 
-        List<ChangedEndpoint> changedEndpoints = diff.getChangedEndpoints();
-        ContainerTag ol_changed = ol_changed(changedEndpoints);
+        out.append("<div>");
+        h2_headArticle("What's Changed", "changed").render(out);
+        hr().render(out);
+        out.append("<ol id=\"changed\">");
+        ol_changed(diff.getChangedEndpoints(), out);
+        out.append("</ol></div>");
 
-        ContainerTag p_versions = p_versions(diff.getOldVersion(), diff.getNewVersion());
+        DefinitionDiff definitions = diff.getDefinitionDiff();
+        if (!definitions.getIncreased().isEmpty() || !definitions.getMissing().isEmpty()
+            || !definitions.getRenamed().isEmpty()) {
+            out.append("<div>");
+            h2_headArticle("Definitions", "definitions").render(out);
+            hr().render(out);
+            out.append("<ol id=\"definitions\">");
+            ol_definitions(definitions, out);
+            out.append("</ol></div>");
+        }
 
-        return renderHtml(ol_newEndpoint, ol_missingEndpoint, ol_changed, p_versions);
+        out.append("</div></body></html>");
     }
 
     public String renderHtml(ContainerTag ol_new, ContainerTag ol_miss, ContainerTag ol_changed, ContainerTag p_versions) {
         ContainerTag html = html().attr("lang", "en").with(
-            head().with(
-                meta().withCharset("utf-8"),
-                title(title),
-                script(rawHtml("function showHide(id){if(document.getElementById(id).style.display==\'none\'){document.getElementById(id).style.display=\'block\';document.getElementById(\'btn_\'+id).innerHTML=\'&uArr;\';}else{document.getElementById(id).style.display=\'none\';document.getElementById(\'btn_\'+id).innerHTML=\'&dArr;\';}return true;}")).withType("text/javascript"),
-                link().withRel("stylesheet").withHref(linkCss)
-            ),
+            head_page(),
             body().with(
                 header().with(h1(title)),
                 div().withClass("article").with(
@@ -65,8 +103,36 @@ public class HtmlRender implements Render {
         return document().render() + html.render();
     }
 
+    /**
+     * a renamed definition is neither added nor deleted
+     */
+    private void ol_definitions(DefinitionDiff definitions, Appendable out) throws IOException {
+        for (String name : definitions.getIncreased().keySet()) {
+            li().withText("Add ").with(code(name)).render(out);
+        }
+        for (String name : definitions.getMissing().keySet()) {
+            li().withClass("missing").withText("Delete ").with(del(name)).render(out);
+        }
+        for (Entry<String, String> entry : definitions.getRenamed().entrySet()) {
+            li().withText("Rename ").with(del(entry.getKey())).withText(" to ").with(code(entry.getValue())).render(out);
+        }
+    }
+
+    private ContainerTag head_page() {
+        return TagCreator.head().with(
+            meta().withCharset("utf-8"),
+            title(title),
+            script(rawHtml("function showHide(id){if(document.getElementById(id).style.display==\'none\'){document.getElementById(id).style.display=\'block\';document.getElementById(\'btn_\'+id).innerHTML=\'&uArr;\';}else{document.getElementById(id).style.display=\'none\';document.getElementById(\'btn_\'+id).innerHTML=\'&dArr;\';}return true;}")).withType("text/javascript"),
+            link().withRel("stylesheet").withHref(linkCss)
+        );
+    }
+
     private ContainerTag div_headArticle(final String title, final String type, final ContainerTag ol) {
-        return div().with(h2(title).with(a(rawHtml("&uArr;")).withId("btn_" + type).withClass("showhide").withHref("#").attr("onClick", "javascript:showHide('" + type + "');")), hr(), ol);
+        return div().with(h2_headArticle(title, type), hr(), ol);
+    }
+
+    private ContainerTag h2_headArticle(final String title, final String type) {
+        return h2(title).with(a(rawHtml("&uArr;")).withId("btn_" + type).withClass("showhide").withHref("#").attr("onClick", "javascript:showHide('" + type + "');"));
     }
 
     private ContainerTag p_versions(String oldVersion, String newVersion) {
@@ -75,14 +141,12 @@ public class HtmlRender implements Render {
         return p;
     }
 
-    private ContainerTag ol_newEndpoint(List<Endpoint> endpoints) {
-        if (null == endpoints) return ol().withId("new");
-        ContainerTag ol = ol().withId("new");
+    private void ol_newEndpoint(List<Endpoint> endpoints, Appendable out) throws IOException {
+        if (null == endpoints) return;
         for (Endpoint endpoint : endpoints) {
-            ol.with(li_newEndpoint(endpoint.getMethod().toString(),
-                endpoint.getPathUrl(), endpoint.getSummary()));
+            li_newEndpoint(endpoint.getMethod().toString(),
+                endpoint.getPathUrl(), endpoint.getSummary()).render(out);
         }
-        return ol;
     }
 
     private ContainerTag li_newEndpoint(String method, String path,
@@ -91,14 +155,12 @@ public class HtmlRender implements Render {
             .with(span(null == desc ? "" : desc));
     }
 
-    private ContainerTag ol_missingEndpoint(List<Endpoint> endpoints) {
-        if (null == endpoints) return ol().withId("deprecated");
-        ContainerTag ol = ol().withId("deprecated");
+    private void ol_missingEndpoint(List<Endpoint> endpoints, Appendable out) throws IOException {
+        if (null == endpoints) return;
         for (Endpoint endpoint : endpoints) {
-            ol.with(li_missingEndpoint(endpoint.getMethod().toString(),
-                endpoint.getPathUrl(), endpoint.getSummary()));
+            li_missingEndpoint(endpoint.getMethod().toString(),
+                endpoint.getPathUrl(), endpoint.getSummary()).render(out);
         }
-        return ol;
     }
 
     private ContainerTag li_missingEndpoint(String method, String path,
@@ -107,9 +169,8 @@ public class HtmlRender implements Render {
             del().withText(path)).with(span(null == desc ? "" : " " + desc));
     }
 
-    private ContainerTag ol_changed(List<ChangedEndpoint> changedEndpoints) {
-        if (null == changedEndpoints) return ol().withId("changed");
-        ContainerTag ol = ol().withId("changed");
+    private void ol_changed(List<ChangedEndpoint> changedEndpoints, Appendable out) throws IOException {
+        if (null == changedEndpoints) return;
         for (ChangedEndpoint changedEndpoint : changedEndpoints) {
             String pathUrl = changedEndpoint.getPathUrl();
             Map<HttpMethod, ChangedOperation> changedOperations = changedEndpoint.getChangedOperations();
@@ -122,34 +183,67 @@ public class HtmlRender implements Render {
                 if (changedOperation.isDiffParam()) {
                     ul_detail.with(li().with(h3("Parameter")).with(ul_param(changedOperation)));
                 }
-                if (changedOperation.isDiffProp()) {
-                    ul_detail.with(li().with(h3("Return Type")).with(ul_response(changedOperation)));
+                if (changedOperation.isDiffResponse()) {
+                    ul_detail.with(li().with(h3("Response")).with(ul_responses(changedOperation)));
+                }
+                ContainerTag li = li().with(span(method).withClass(method));
+                if (MarkdownRender.isRenamed(changedEndpoint)) {
+                    li.with(del(changedEndpoint.getOldPathUrl())).withText(" ");
                 }
-                ol.with(li().with(span(method).withClass(method)).withText(pathUrl + " ").with(span(null == desc ? "" : desc))
-                    .with(ul_detail));
+                li.withText(pathUrl + " ").with(span(null == desc ? "" : desc))
+                    .with(ul_detail).render(out);
             }
         }
-        return ol;
     }
 
-    private ContainerTag ul_response(ChangedOperation changedOperation) {
-        List<ElProperty> addProps = changedOperation.getAddProps();
-        List<ElProperty> delProps = changedOperation.getMissingProps();
+    private ContainerTag ul_responses(ChangedOperation changedOperation) {
         ContainerTag ul = ul().withClass("change response");
-        for (ElProperty prop : addProps) {
-            ul.with(li_addProp(prop));
+        for (Entry<String, Response> entry : changedOperation.getAddResponses().entrySet()) {
+            ul.with(li().withText("Add " + entry.getKey()).with(span_comment(entry.getValue().getDescription())));
         }
-        for (ElProperty prop : delProps) {
-            ul.with(li_missingProp(prop));
+        for (ChangedResponse response : changedOperation.getChangedResponses()) {
+            String in = " in " + response.getCode();
+            for (ElProperty header : response.getAddHeaders()) {
+                ul.with(li().withText("Add header " + header.getEl() + in).with(span_comment(header.getProperty().getDescription())));
+            }
+            for (ElProperty header : response.getChangedHeaders()) {
+                ul.with(li().withText(MarkdownRender.changedProp("Change header", header) + in));
+            }
+            for (ElProperty prop : response.getAddProps()) {
+                ul.with(li().withText("Add " + prop.getEl() + in).with(span_comment(prop.getProperty().getDescription())));
+            }
+            for (ElProperty prop : response.getChangedProps()) {
+                ul.with(li_changedProp(prop, in));
+            }
+        }
+        for (ChangedResponse response : changedOperation.getChangedResponses()) {
+            String in = " in " + response.getCode();
+            for (ElProperty header : response.getMissingHeaders()) {
+                ul.with(li().withClass("missing").withText("Delete header").with(del(header.getEl())).withText(in).with(span_comment(header.getProperty().getDescription())));
+            }
+            for (ElProperty prop : response.getMissingProps()) {
+                ul.with(li().withClass("missing").withText("Delete").with(del(prop.getEl())).withText(in).with(span_comment(prop.getProperty().getDescription())));
+            }
+        }
+        for (Entry<String, Response> entry : changedOperation.getMissingResponses().entrySet()) {
+            ul.with(li().withClass("missing").withText("Delete").with(del(entry.getKey())).with(span_comment(entry.getValue().getDescription())));
         }
         return ul;
     }
 
+    private ContainerTag span_comment(String description) {
+        return span(null == description ? "" : ("//" + description)).withClass("comment");
+    }
+
     private ContainerTag li_missingProp(ElProperty prop) {
         Property property = prop.getProperty();
         return li().withClass("missing").withText("Delete").with(del(prop.getEl())).with(span(null == property.getDescription() ? "" : ("//" + property.getDescription())).withClass("comment"));
     }
 
+    private ContainerTag li_changedProp(ElProperty prop, String in) {
+        return li().withText(MarkdownRender.changedProp(prop) + in);
+    }
+
     private ContainerTag li_addProp(ElProperty prop) {
         Property property = prop.getProperty();
         return li().withText("Add " + prop.getEl()).with(span(null == property.getDescription() ? "" : ("//" + property.getDescription())).withClass("comment"));
@@ -172,11 +266,14 @@ public class HtmlRender implements Render {
         for (ChangedParameter param : changedParameters) {
             boolean changeRequired = param.isChangeRequired();
             boolean changeDescription = param.isChangeDescription();
-            if (changeRequired || changeDescription)
+            if (param.isChangeName() || changeRequired || param.isChangeType() || changeDescription)
                 ul.with(li_changedParam(param));
         }
         for (ChangedParameter param : changedParameters) {
             List<ElProperty> missing = param.getMissing();
+            for (ElProperty prop : param.getChanged()) {
+                ul.with(li_changedProp(prop, ""));
+            }
             for (ElProperty prop : missing) {
                 ul.with(li_missingProp(prop));
             }
@@ -201,9 +298,15 @@ public class HtmlRender implements Render {
         Parameter rightParam = changeParam.getRightParameter();
         Parameter leftParam = changeParam.getLeftParameter();
         ContainerTag li = li().withText(rightParam.getName());
+        if (changeParam.isChangeName()) {
+            li.withText(" rename from ").with(del(leftParam.getName()));
+        }
         if (changeRequired) {
             li.withText(" change into " + (rightParam.getRequired() ? "required" : "not required"));
         }
+        if (changeParam.isChangeType()) {
+            li.withText(" change type into " + MarkdownRender.type((SerializableParameter) rightParam));
+        }
         if (changeDescription) {
             li.withText(" Notes ").with(del(leftParam.getDescription()).withClass("comment")).withText(" change into ").with(span(span(null == rightParam.getDescription() ? "" : rightParam.getDescription()).withClass("comment")));
         }
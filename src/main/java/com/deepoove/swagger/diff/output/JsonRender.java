@@ -0,0 +1,303 @@
+package com.deepoove.swagger.diff.output;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map.Entry;
+
+import com.deepoove.swagger.diff.SwaggerDiff;
+import com.deepoove.swagger.diff.compare.DefinitionDiff;
+import com.deepoove.swagger.diff.model.ChangedAttribute;
+import com.deepoove.swagger.diff.model.ChangedEndpoint;
+import com.deepoove.swagger.diff.model.ChangedOperation;
+import com.deepoove.swagger.diff.model.ChangedParameter;
+import com.deepoove.swagger.diff.model.ChangedResponse;
+import com.deepoove.swagger.diff.model.ElProperty;
+import com.deepoove.swagger.diff.model.Endpoint;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import io.swagger.models.HttpMethod;
+import io.swagger.models.Response;
+import io.swagger.models.parameters.Parameter;
+import io.swagger.models.parameters.SerializableParameter;
+
+/**
+ * render the difference as json records, one record for each change
+ * <p>
+ * A record has a kind (endpoint, parameter, property, response or header), a
+ * change (add, delete or modify), the path and the method of the endpoint and
+ * the fields of its kind. A definition record has a change (add, delete or
+ * rename) and the name of the definition only. The json mode writes one object with the versions
+ * and the array of records, the ndjson mode writes a version record and then
+ * one record per line. Records are written while the diff is walked, nothing
+ * but the record being written is kept in memory.
+ *
+ * @author Sayi
+ * @version
+ */
+public class JsonRender implements StreamingRender {
+
+	private static final JsonFactory FACTORY = new JsonFactory()
+			.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+	private final boolean lines;
+
+	public JsonRender() {
+		this(false);
+	}
+
+	/**
+	 * @param lines
+	 *            true to write newline delimited json, one record per line
+	 */
+	public JsonRender(boolean lines) {
+		this.lines = lines;
+	}
+
+	public String render(SwaggerDiff diff) {
+		StringBuilder sb = new StringBuilder();
+		try {
+			render(diff, sb);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return sb.toString();
+	}
+
+	public void render(SwaggerDiff diff, Appendable out) throws IOException {
+		JsonGenerator gen = FACTORY.createGenerator(
+				out instanceof Writer ? (Writer) out : new AppendableWriter(out));
+		if (lines) {
+			gen.writeStartObject();
+			gen.writeStringField("kind", "version");
+			versions(diff, gen);
+			gen.writeEndObject();
+			gen.writeRaw('\n');
+		} else {
+			gen.writeStartObject();
+			versions(diff, gen);
+			gen.writeArrayFieldStart("changes");
+		}
+		Records records = new Records(gen, lines);
+		for (Endpoint endpoint : diff.getNewEndpoints()) {
+			records.endpoint("add", endpoint);
+		}
+		for (Endpoint endpoint : diff.getMissingEndpoints()) {
+			records.endpoint("delete", endpoint);
+		}
+		DefinitionDiff definitions = diff.getDefinitionDiff();
+		for (String name : definitions.getIncreased().keySet()) {
+			records.definition("add", name, null);
+		}
+		for (String name : definitions.getMissing().keySet()) {
+			records.definition("delete", name, null);
+		}
+		for (Entry<String, String> entry : definitions.getRenamed().entrySet()) {
+			records.definition("rename", entry.getValue(), entry.getKey());
+		}
+		for (ChangedEndpoint changedEndpoint : diff.getChangedEndpoints()) {
+			for (Entry<HttpMethod, ChangedOperation> entry : changedEndpoint
+					.getChangedOperations().entrySet()) {
+				records.operation(changedEndpoint, entry.getKey(), entry.getValue());
+			}
+		}
+		if (!lines) {
+			gen.writeEndArray();
+			gen.writeEndObject();
+		}
+		gen.close();
+	}
+
+	private static void versions(SwaggerDiff diff, JsonGenerator gen) throws IOException {
+		gen.writeStringField("oldVersion", diff.getOldVersion());
+		gen.writeStringField("newVersion", diff.getNewVersion());
+	}
+
+	private static final class Records {
+
+		private final JsonGenerator gen;
+		private final boolean lines;
+
+		private String path;
+		// url of the path in the old doc, null if it did not change
+		private String oldPath;
+		private HttpMethod method;
+
+		Records(JsonGenerator gen, boolean lines) {
+			this.gen = gen;
+			this.lines = lines;
+		}
+
+		void endpoint(String change, Endpoint endpoint) throws IOException {
+			path = endpoint.getPathUrl();
+			oldPath = null;
+			method = endpoint.getMethod();
+			start("endpoint", change);
+			optional("summary", endpoint.getSummary());
+			end();
+		}
+
+		void definition(String change, String name, String oldName) throws IOException {
+			gen.writeStartObject();
+			gen.writeStringField("kind", "definition");
+			gen.writeStringField("change", change);
+			gen.writeStringField("name", name);
+			optional("oldName", oldName);
+			end();
+		}
+
+		void operation(ChangedEndpoint changedEndpoint, HttpMethod httpMethod, ChangedOperation operation)
+				throws IOException {
+			path = changedEndpoint.getPathUrl();
+			oldPath = MarkdownRender.isRenamed(changedEndpoint) ? changedEndpoint.getOldPathUrl() : null;
+			method = httpMethod;
+			for (Parameter param : operation.getAddParameters()) {
+				parameter("add", param);
+			}
+			for (Parameter param : operation.getMissingParameters()) {
+				parameter("delete", param);
+			}
+			for (ChangedParameter param : operation.getChangedParameter()) {
+				String name = param.getRightParameter().getName();
+				if (param.isChangeName() || param.isChangeRequired() || param.isChangeType()
+						|| param.isChangeDescription()) {
+					start("parameter", "modify");
+					gen.writeStringField("name", name);
+					if (param.isChangeName()) {
+						gen.writeStringField("oldName", param.getLeftParameter().getName());
+					}
+					if (param.isChangeRequired()) {
+						gen.writeBooleanField("required", param.getRightParameter().getRequired());
+					}
+					if (param.isChangeType()) {
+						gen.writeStringField("type",
+								MarkdownRender.type((SerializableParameter) param.getRightParameter()));
+					}
+					if (param.isChangeDescription()) {
+						optional("oldDescription", param.getLeftParameter().getDescription());
+						optional("description", param.getRightParameter().getDescription());
+					}
+					end();
+				}
+				properties("add", "parameter", name, param.getIncreased());
+				properties("modify", "parameter", name, param.getChanged());
+				properties("delete", "parameter", name, param.getMissing());
+			}
+			for (Entry<String, Response> entry : operation.getAddResponses().entrySet()) {
+				response("add", entry.getKey(), entry.getValue());
+			}
+			for (Entry<String, Response> entry : operation.getMissingResponses().entrySet()) {
+				response("delete", entry.getKey(), entry.getValue());
+			}
+			for (ChangedResponse response : operation.getChangedResponses()) {
+				headers("add", response.getCode(), response.getAddHeaders());
+				headers("modify", response.getCode(), response.getChangedHeaders());
+				headers("delete", response.getCode(), response.getMissingHeaders());
+				properties("add", "response", response.getCode(), response.getAddProps());
+				properties("modify", "response", response.getCode(), response.getChangedProps());
+				properties("delete", "response", response.getCode(), response.getMissingProps());
+			}
+		}
+
+		private void parameter(String change, Parameter param) throws IOException {
+			start("parameter", change);
+			gen.writeStringField("name", param.getName());
+			optional("in", param.getIn());
+			optional("description", param.getDescription());
+			end();
+		}
+
+		private void properties(String change, String in, String owner, List<ElProperty> props)
+				throws IOException {
+			for (ElProperty prop : props) {
+				start("property", change);
+				gen.writeStringField("in", in);
+				gen.writeStringField("parameter".equals(in) ? "parameter" : "code", owner);
+				gen.writeStringField("el", prop.getEl());
+				optional("description", prop.getProperty().getDescription());
+				if (!prop.getChangedAttributes().isEmpty()) {
+					gen.writeArrayFieldStart("attributes");
+					for (ChangedAttribute attribute : prop.getChangedAttributes()) {
+						gen.writeStartObject();
+						gen.writeStringField("name", attribute.getName());
+						optional("old", value(attribute.getOldValue()));
+						optional("new", value(attribute.getNewValue()));
+						gen.writeEndObject();
+					}
+					gen.writeEndArray();
+				}
+				end();
+			}
+		}
+
+		private static String value(Object value) {
+			return null == value ? null : value.toString();
+		}
+
+		private void response(String change, String code, Response response) throws IOException {
+			start("response", change);
+			gen.writeStringField("code", code);
+			optional("description", response.getDescription());
+			end();
+		}
+
+		private void headers(String change, String code, List<ElProperty> headers)
+				throws IOException {
+			for (ElProperty header : headers) {
+				start("header", change);
+				gen.writeStringField("code", code);
+				gen.writeStringField("name", header.getEl());
+				optional("description", header.getProperty().getDescription());
+				end();
+			}
+		}
+
+		private void start(String kind, String change) throws IOException {
+			gen.writeStartObject();
+			gen.writeStringField("kind", kind);
+			gen.writeStringField("change", change);
+			gen.writeStringField("path", path);
+			optional("oldPath", oldPath);
+			gen.writeStringField("method", method.toString());
+		}
+
+		private void optional(String field, String value) throws IOException {
+			if (null != value) gen.writeStringField(field, value);
+		}
+
+		private void end() throws IOException {
+			gen.writeEndObject();
+			if (lines) gen.writeRaw('\n');
+		}
+	}
+
+	/**
+	 * writer on top of an appendable, the generator writes to a writer only
+	 */
+	private static final class AppendableWriter extends Writer {
+
+		private final Appendable out;
+
+		AppendableWriter(Appendable out) {
+			this.out = out;
+		}
+
+		@Override
+		public void write(char[] cbuf, int off, int len) throws IOException {
+			out.append(new String(cbuf, off, len));
+		}
+
+		@Override
+		public void write(String str, int off, int len) throws IOException {
+			out.append(str, off, off + len);
+		}
+
+		@Override
+		public void flush() {}
+
+		@Override
+		public void close() {}
+	}
+
+}
@@ -1,21 +1,27 @@
 package com.deepoove.swagger.diff.output;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
 import com.deepoove.swagger.diff.SwaggerDiff;
+import com.deepoove.swagger.diff.compare.DefinitionDiff;
+import com.deepoove.swagger.diff.model.ChangedAttribute;
 import com.deepoove.swagger.diff.model.ChangedEndpoint;
 import com.deepoove.swagger.diff.model.ChangedOperation;
 import com.deepoove.swagger.diff.model.ChangedParameter;
+import com.deepoove.swagger.diff.model.ChangedResponse;
 import com.deepoove.swagger.diff.model.Endpoint;
 import com.deepoove.swagger.diff.model.ElProperty;
 
 import io.swagger.models.HttpMethod;
+import io.swagger.models.Response;
 import io.swagger.models.parameters.Parameter;
+import io.swagger.models.parameters.SerializableParameter;
 import io.swagger.models.properties.Property;
 
-public class MarkdownRender implements Render {
+public class MarkdownRender implements StreamingRender {
 
 	final String H3 = "### ";
 	final String H2 = "## ";
@@ -29,16 +35,48 @@ public class MarkdownRender implements Render {
 	public MarkdownRender() {}
 
 	public String render(SwaggerDiff diff) {
-		List<Endpoint> newEndpoints = diff.getNewEndpoints();
-		String ol_newEndpoint = ol_newEndpoint(newEndpoints);
-
-		List<Endpoint> missingEndpoints = diff.getMissingEndpoints();
-		String ol_missingEndpoint = ol_missingEndpoint(missingEndpoints);
+		StringBuilder sb = new StringBuilder();
+		try {
+			render(diff, sb);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return sb.toString();
+	}
 
-		List<ChangedEndpoint> changedEndpoints = diff.getChangedEndpoints();
-		String ol_changed = ol_changed(changedEndpoints);
+	public void render(SwaggerDiff diff, Appendable out) throws IOException {
+		out.append(H2).append("Version " + diff.getOldVersion() + " to " + diff.getNewVersion())
+				.append("\n").append(HR);
+		out.append(H3).append("What's New").append("\n").append(HR);
+		ol_newEndpoint(diff.getNewEndpoints(), out);
+		out.append("\n").append(H3).append("What's Deprecated").append("\n")
+				.append(HR);
+		ol_missingEndpoint(diff.getMissingEndpoints(), out);
+		out.append("\n").append(H3).append("What's Changed").append("\n")
+				.append(HR);
+		ol_changed(diff.getChangedEndpoints(), out);
+		DefinitionDiff definitions = diff.getDefinitionDiff();
+		if (!definitions.getIncreased().isEmpty() || !definitions.getMissing().isEmpty()
+				|| !definitions.getRenamed().isEmpty()) {
+			out.append("\n").append(H3).append("Definitions").append("\n").append(HR);
+			ol_definitions(definitions, out);
+		}
+	}
 
-		return renderHtml(diff.getOldVersion(), diff.getNewVersion(), ol_newEndpoint, ol_missingEndpoint, ol_changed);
+	/**
+	 * a renamed definition is neither added nor deleted
+	 */
+	private void ol_definitions(DefinitionDiff definitions, Appendable out) throws IOException {
+		for (String name : definitions.getIncreased().keySet()) {
+			out.append(LI).append("Add ").append(CODE).append(name).append(CODE).append("\n");
+		}
+		for (String name : definitions.getMissing().keySet()) {
+			out.append(LI).append("Delete ").append(CODE).append(name).append(CODE).append("\n");
+		}
+		for (Entry<String, String> entry : definitions.getRenamed().entrySet()) {
+			out.append(LI).append("Rename ").append(CODE).append(entry.getKey()).append(CODE)
+					.append(" to ").append(CODE).append(entry.getValue()).append(CODE).append("\n");
+		}
 	}
 
 	public String renderHtml(String oldVersion, String newVersion, String ol_new, String ol_miss,
@@ -54,38 +92,36 @@ public class MarkdownRender implements Render {
 		return sb.toString();
 	}
 
-	private String ol_newEndpoint(List<Endpoint> endpoints) {
-		if (null == endpoints) return "";
-		StringBuffer sb = new StringBuffer();
+	private void ol_newEndpoint(List<Endpoint> endpoints, Appendable out) throws IOException {
+		if (null == endpoints) return;
 		for (Endpoint endpoint : endpoints) {
-			sb.append(li_newEndpoint(endpoint.getMethod().toString(),
-					endpoint.getPathUrl(), endpoint.getSummary()));
+			li_newEndpoint(endpoint.getMethod().toString(),
+					endpoint.getPathUrl(), endpoint.getSummary(), out);
 		}
-		return sb.toString();
 	}
 
-	private String li_newEndpoint(String method, String path, String desc) {
-		StringBuffer sb = new StringBuffer();
-		sb.append(LI).append(CODE).append(method).append(CODE)
+	private void li_newEndpoint(String method, String path, String desc, Appendable out)
+			throws IOException {
+		out.append(LI).append(CODE).append(method).append(CODE)
 				.append(" " + path).append(" " + desc + "\n");
-		return sb.toString();
 	}
 
-	private String ol_missingEndpoint(List<Endpoint> endpoints) {
-		if (null == endpoints) return "";
-		StringBuffer sb = new StringBuffer();
+	private void ol_missingEndpoint(List<Endpoint> endpoints, Appendable out) throws IOException {
+		if (null == endpoints) return;
 		for (Endpoint endpoint : endpoints) {
-			sb.append(li_newEndpoint(endpoint.getMethod().toString(),
-					endpoint.getPathUrl(), endpoint.getSummary()));
+			li_newEndpoint(endpoint.getMethod().toString(),
+					endpoint.getPathUrl(), endpoint.getSummary(), out);
 		}
-		return sb.toString();
 	}
 
-	private String ol_changed(List<ChangedEndpoint> changedEndpoints) {
-		if (null == changedEndpoints) return "";
-		StringBuffer sb = new StringBuffer();
+	private void ol_changed(List<ChangedEndpoint> changedEndpoints, Appendable out)
+			throws IOException {
+		if (null == changedEndpoints) return;
 		for (ChangedEndpoint changedEndpoint : changedEndpoints) {
 			String pathUrl = changedEndpoint.getPathUrl();
+			if (isRenamed(changedEndpoint)) {
+				pathUrl += " (was " + changedEndpoint.getOldPathUrl() + ")";
+			}
 			Map<HttpMethod, ChangedOperation> changedOperations = changedEndpoint
 					.getChangedOperations();
 			for (Entry<HttpMethod, ChangedOperation> entry : changedOperations
@@ -94,123 +130,204 @@ public class MarkdownRender implements Render {
 				ChangedOperation changedOperation = entry.getValue();
 				String desc = changedOperation.getSummary();
 
-				StringBuffer ul_detail = new StringBuffer();
+				out.append(LI).append(CODE).append(method).append(CODE)
+						.append(" " + pathUrl).append(" " + desc + "  \n");
 				if (changedOperation.isDiffParam()) {
-					ul_detail.append(PRE_LI).append("Parameter")
-							.append(ul_param(changedOperation));
+					out.append(PRE_LI).append("Parameter");
+					ul_param(changedOperation, out);
 				}
-				if (changedOperation.isDiffProp()) {
-					ul_detail.append(PRE_LI).append("Return Type")
-							.append(ul_response(changedOperation));
+				if (changedOperation.isDiffResponse()) {
+					out.append(PRE_LI).append("Response");
+					ul_responses(changedOperation, out);
 				}
-				sb.append(LI).append(CODE).append(method).append(CODE)
-						.append(" " + pathUrl).append(" " + desc + "  \n")
-						.append(ul_detail);
 			}
 		}
-		return sb.toString();
 	}
 
-	private String ul_response(ChangedOperation changedOperation) {
-		List<ElProperty> addProps = changedOperation.getAddProps();
-		List<ElProperty> delProps = changedOperation.getMissingProps();
-		StringBuffer sb = new StringBuffer("\n\n");
-		for (ElProperty prop : addProps) {
-			sb.append(PRE_LI).append(PRE_CODE).append(li_addProp(prop) + "\n");
+	private void ul_responses(ChangedOperation changedOperation, Appendable out)
+			throws IOException {
+		out.append("\n\n");
+		for (Entry<String, Response> entry : changedOperation.getAddResponses().entrySet()) {
+			out.append(PRE_LI).append(PRE_CODE).append("Add ").append(entry.getKey())
+					.append(comment(entry.getValue().getDescription())).append("\n");
+		}
+		for (ChangedResponse response : changedOperation.getChangedResponses()) {
+			String in = " in " + response.getCode();
+			for (ElProperty header : response.getAddHeaders()) {
+				out.append(PRE_LI).append(PRE_CODE).append("Add header ").append(header.getEl())
+						.append(in).append(comment(header.getProperty().getDescription())).append("\n");
+			}
+			for (ElProperty header : response.getChangedHeaders()) {
+				out.append(PRE_LI).append(PRE_CODE).append(changedProp("Change header", header)).append(in)
+						.append("\n");
+			}
+			for (ElProperty prop : response.getAddProps()) {
+				out.append(PRE_LI).append(PRE_CODE).append("Add ").append(prop.getEl())
+						.append(in).append(comment(prop.getProperty().getDescription())).append("\n");
+			}
+			for (ElProperty prop : response.getChangedProps()) {
+				out.append(PRE_LI).append(PRE_CODE).append(changedProp(prop)).append(in).append("\n");
+			}
+		}
+		for (ChangedResponse response : changedOperation.getChangedResponses()) {
+			String in = " in " + response.getCode();
+			for (ElProperty header : response.getMissingHeaders()) {
+				out.append(PRE_LI).append(PRE_CODE).append("Delete header ").append(header.getEl())
+						.append(in).append(comment(header.getProperty().getDescription())).append("\n");
+			}
+			for (ElProperty prop : response.getMissingProps()) {
+				out.append(PRE_LI).append(PRE_CODE).append("Delete ").append(prop.getEl())
+						.append(in).append(comment(prop.getProperty().getDescription())).append("\n");
+			}
 		}
-		for (ElProperty prop : delProps) {
-			sb.append(PRE_LI).append(PRE_CODE)
-					.append(li_missingProp(prop) + "\n");
+		for (Entry<String, Response> entry : changedOperation.getMissingResponses().entrySet()) {
+			out.append(PRE_LI).append(PRE_CODE).append("Delete ").append(entry.getKey())
+					.append(comment(entry.getValue().getDescription())).append("\n");
 		}
+	}
+
+	/**
+	 * @return true if the url of the endpoint changed by the names of its path
+	 *         parameters only
+	 */
+	static boolean isRenamed(ChangedEndpoint changedEndpoint) {
+		return null != changedEndpoint.getOldPathUrl()
+				&& !changedEndpoint.getOldPathUrl().equals(changedEndpoint.getPathUrl());
+	}
+
+	/**
+	 * type of a parameter with its format and enum, like integer(int64)
+	 */
+	static String type(SerializableParameter param) {
+		StringBuilder sb = new StringBuilder(String.valueOf(param.getType()));
+		if (null != param.getFormat()) sb.append("(").append(param.getFormat()).append(")");
+		if (null != param.getEnum()) sb.append(" ").append(param.getEnum());
 		return sb.toString();
 	}
 
-	private String li_missingProp(ElProperty prop) {
+	/**
+	 * changed attributes of a property, like: Change status enum [a, b] to [a]
+	 */
+	static String changedProp(ElProperty prop) {
+		return changedProp("Change", prop);
+	}
+
+	static String changedProp(String change, ElProperty prop) {
+		StringBuilder sb = new StringBuilder(change);
+		if (null != prop.getEl()) sb.append(" ").append(prop.getEl());
+		String separator = " ";
+		for (ChangedAttribute attribute : prop.getChangedAttributes()) {
+			sb.append(separator).append(attribute.getName()).append(" ")
+					.append(value(attribute.getOldValue())).append(" to ")
+					.append(value(attribute.getNewValue()));
+			separator = ", ";
+		}
+		return sb.toString();
+	}
+
+	private static String value(Object value) {
+		return null == value ? "none" : value.toString();
+	}
+
+	private static String comment(String description) {
+		return null == description ? "" : (" //" + description);
+	}
+
+	private void li_missingProp(ElProperty prop, Appendable out) throws IOException {
 		Property property = prop.getProperty();
-		StringBuffer sb = new StringBuffer("");
-		sb.append("Delete ").append(prop.getEl())
+		out.append("Delete ").append(prop.getEl())
 				.append(null == property.getDescription() ? ""
 						: (" //" + property.getDescription()));
-		return sb.toString();
 	}
 
-	private String li_addProp(ElProperty prop) {
+	private void li_addProp(ElProperty prop, Appendable out) throws IOException {
 		Property property = prop.getProperty();
-		StringBuffer sb = new StringBuffer("");
-		sb.append("Add ").append(prop.getEl())
+		out.append("Add ").append(prop.getEl())
 				.append(null == property.getDescription() ? ""
 						: (" //" + property.getDescription()));
-		return sb.toString();
 	}
 
-	private String ul_param(ChangedOperation changedOperation) {
+	private void ul_param(ChangedOperation changedOperation, Appendable out)
+			throws IOException {
 		List<Parameter> addParameters = changedOperation.getAddParameters();
 		List<Parameter> delParameters = changedOperation.getMissingParameters();
 		List<ChangedParameter> changedParameters = changedOperation
 				.getChangedParameter();
-		StringBuffer sb = new StringBuffer("\n\n");
+		out.append("\n\n");
 		for (Parameter param : addParameters) {
-			sb.append(PRE_LI).append(PRE_CODE)
-					.append(li_addParam(param) + "\n");
+			out.append(PRE_LI).append(PRE_CODE);
+			li_addParam(param, out);
+			out.append("\n");
 		}
 		for (ChangedParameter param : changedParameters) {
 			List<ElProperty> increased = param.getIncreased();
 			for (ElProperty prop : increased) {
-				sb.append(PRE_LI).append(PRE_CODE)
-						.append(li_addProp(prop) + "\n");
+				out.append(PRE_LI).append(PRE_CODE);
+				li_addProp(prop, out);
+				out.append("\n");
 			}
 		}
 		for (ChangedParameter param : changedParameters) {
 			boolean changeRequired = param.isChangeRequired();
 			boolean changeDescription = param.isChangeDescription();
-			if (changeRequired || changeDescription) sb.append(PRE_LI)
-					.append(PRE_CODE).append(li_changedParam(param) + "\n");
+			if (param.isChangeName() || changeRequired || param.isChangeType() || changeDescription) {
+				out.append(PRE_LI).append(PRE_CODE);
+				li_changedParam(param, out);
+				out.append("\n");
+			}
+		}
+		for (ChangedParameter param : changedParameters) {
+			for (ElProperty prop : param.getChanged()) {
+				out.append(PRE_LI).append(PRE_CODE).append(changedProp(prop)).append("\n");
+			}
 		}
 		for (ChangedParameter param : changedParameters) {
 			List<ElProperty> missing = param.getMissing();
 			for (ElProperty prop : missing) {
-				sb.append(PRE_LI).append(PRE_CODE)
-						.append(li_missingProp(prop) + "\n");
+				out.append(PRE_LI).append(PRE_CODE);
+				li_missingProp(prop, out);
+				out.append("\n");
 			}
 		}
 		for (Parameter param : delParameters) {
-			sb.append(PRE_LI).append(PRE_CODE)
-					.append(li_missingParam(param) + "\n");
+			out.append(PRE_LI).append(PRE_CODE);
+			li_missingParam(param, out);
+			out.append("\n");
 		}
-		return sb.toString();
 	}
 
-	private String li_addParam(Parameter param) {
-		StringBuffer sb = new StringBuffer("");
-		sb.append("Add ").append(param.getName())
+	private void li_addParam(Parameter param, Appendable out) throws IOException {
+		out.append("Add ").append(param.getName())
 				.append(null == param.getDescription() ? ""
 						: (" //" + param.getDescription()));
-		return sb.toString();
 	}
 
-	private String li_missingParam(Parameter param) {
-		StringBuffer sb = new StringBuffer("");
-		sb.append("Delete ").append(param.getName())
+	private void li_missingParam(Parameter param, Appendable out) throws IOException {
+		out.append("Delete ").append(param.getName())
 				.append(null == param.getDescription() ? ""
 						: (" //" + param.getDescription()));
-		return sb.toString();
 	}
 
-	private String li_changedParam(ChangedParameter changeParam) {
+	private void li_changedParam(ChangedParameter changeParam, Appendable out)
+			throws IOException {
 		boolean changeRequired = changeParam.isChangeRequired();
 		boolean changeDescription = changeParam.isChangeDescription();
 		Parameter rightParam = changeParam.getRightParameter();
 		Parameter leftParam = changeParam.getLeftParameter();
-		StringBuffer sb = new StringBuffer("");
-		sb.append(rightParam.getName());
+		out.append(rightParam.getName());
+		if (changeParam.isChangeName()) {
+			out.append(" rename from ").append(leftParam.getName());
+		}
 		if (changeRequired) {
-			sb.append(" change into " + (rightParam.getRequired() ? "required" : "not required"));
+			out.append(" change into " + (rightParam.getRequired() ? "required" : "not required"));
+		}
+		if (changeParam.isChangeType()) {
+			out.append(" change type into ").append(type((SerializableParameter) rightParam));
 		}
 		if (changeDescription) {
-			sb.append(" Notes ").append(leftParam.getDescription()).append(" change into ")
+			out.append(" Notes ").append(leftParam.getDescription()).append(" change into ")
 					.append(rightParam.getDescription());
 		}
-		return sb.toString();
 	}
 
 }
@@ -0,0 +1,20 @@
+package com.deepoove.swagger.diff.output;
+
+import java.io.IOException;
+
+import com.deepoove.swagger.diff.SwaggerDiff;
+
+/**
+ * a render which can also write the difference to any Appendable
+ * @author Sayi
+ * @version
+ */
+public interface StreamingRender extends Render {
+
+	/**
+	 * render the difference to out part by part, without building the whole
+	 * document in memory
+	 */
+	void render(SwaggerDiff diff, Appendable out) throws IOException;
+
+}
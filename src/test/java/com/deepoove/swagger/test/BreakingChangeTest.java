@@ -0,0 +1,148 @@
+package com.deepoove.swagger.test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.deepoove.swagger.diff.SwaggerDiff;
+import com.deepoove.swagger.diff.compare.CompatibilityCheck;
+import com.deepoove.swagger.diff.compare.PreparedSpec;
+import com.deepoove.swagger.diff.model.BreakingChange;
+import com.deepoove.swagger.diff.model.ChangedOperation;
+import com.deepoove.swagger.diff.model.ElProperty;
+import com.deepoove.swagger.diff.output.MarkdownRender;
+
+import io.swagger.models.Info;
+import io.swagger.models.ModelImpl;
+import io.swagger.models.Operation;
+import io.swagger.models.Path;
+import io.swagger.models.RefModel;
+import io.swagger.models.Response;
+import io.swagger.models.Swagger;
+import io.swagger.models.parameters.BodyParameter;
+import io.swagger.models.parameters.QueryParameter;
+import io.swagger.models.properties.ArrayProperty;
+import io.swagger.models.properties.DateProperty;
+import io.swagger.models.properties.DateTimeProperty;
+import io.swagger.models.properties.IntegerProperty;
+import io.swagger.models.properties.MapProperty;
+import io.swagger.models.properties.ObjectProperty;
+import io.swagger.models.properties.RefProperty;
+import io.swagger.models.properties.StringProperty;
+
+public class BreakingChangeTest {
+
+	@Test
+	public void testBreakingChanges() {
+		Swagger oldSpec = new Swagger().info(new Info().version("1.0.0"));
+		Swagger newSpec = new Swagger().info(new Info().version("1.0.1"));
+		oldSpec.path("/removed", new Path().get(new Operation()));
+		oldSpec.path("/pets", new Path().get(new Operation()
+				.parameter(new QueryParameter().name("status").type("string"))
+				.parameter(new QueryParameter().name("limit").type("integer").format("int32"))
+				.response(200, new Response().header("X-Total", new IntegerProperty()))
+				.response(206, new Response()).response(404, new Response())));
+		newSpec.path("/pets", new Path().get(new Operation()
+				.parameter(new QueryParameter().name("status").type("string")._enum(Arrays.asList("sold")))
+				.parameter(new QueryParameter().name("limit").type("integer").format("int64").required(true))
+				.parameter(new QueryParameter().name("tags").type("string"))
+				.response(200, new Response())));
+		List<BreakingChange> changes = SwaggerDiff.compare(oldSpec, newSpec).getBreakingChanges();
+		List<String> rules = new ArrayList<String>();
+		for (BreakingChange change : changes) {
+			rules.add(change.getRule() + " " + change.getEl());
+		}
+		Assert.assertEquals(Arrays.asList(CompatibilityCheck.REMOVED_ENDPOINT + " null",
+				CompatibilityCheck.NARROWED_PARAMETER + " status", CompatibilityCheck.REQUIRED_PARAMETER + " limit",
+				CompatibilityCheck.REMOVED_SUCCESS_RESPONSE + " 206",
+				CompatibilityCheck.REMOVED_RESPONSE_HEADER + " X-Total"), rules);
+
+		// the gate stops at the removed endpoint, before comparing any operation
+		BreakingChange first = SwaggerDiff.firstBreakingChange(PreparedSpec.of(oldSpec), PreparedSpec.of(newSpec));
+		Assert.assertEquals(CompatibilityCheck.REMOVED_ENDPOINT, first.getRule());
+		Assert.assertEquals("/removed", first.getPathUrl());
+
+		oldSpec.getPaths().remove("/removed");
+		first = SwaggerDiff.firstBreakingChange(PreparedSpec.of(oldSpec), PreparedSpec.of(newSpec));
+		Assert.assertEquals("GET /pets parameter status narrow type", first.toString());
+		Assert.assertNull(SwaggerDiff.firstBreakingChange(PreparedSpec.of(oldSpec), PreparedSpec.of(oldSpec)));
+	}
+
+	@Test
+	public void testPropertyChanges() {
+		Swagger oldSpec = new Swagger().info(new Info().version("1.0.0"));
+		Swagger newSpec = new Swagger().info(new Info().version("1.0.1"));
+		oldSpec.addDefinition("Tag", new ModelImpl().property("name", new StringProperty()));
+		newSpec.addDefinition("Tag", new ModelImpl().property("name", new StringProperty().maxLength(64)));
+		oldSpec.addDefinition("Pet", new ModelImpl()
+				.property("name", new StringProperty().maxLength(10))
+				.property("status", new StringProperty()._enum("available")._enum("sold"))
+				.property("age", new IntegerProperty().minimum(new BigDecimal("0")))
+				.property("tags", new ArrayProperty(new RefProperty("Tag")))
+				.property("meta", new ObjectProperty().property("born", new DateProperty()))
+				.property("scores", new MapProperty(new IntegerProperty())));
+		ArrayProperty tags = new ArrayProperty(new RefProperty("Tag"));
+		tags.setMaxItems(3);
+		newSpec.addDefinition("Pet", new ModelImpl()
+				.property("name", new StringProperty().maxLength(5))
+				.property("status", new StringProperty()._enum("available"))
+				.property("age", new IntegerProperty().minimum(new BigDecimal("0.0")))
+				.property("tags", tags)
+				.property("meta", new ObjectProperty().property("born", new DateTimeProperty()))
+				.property("scores", new MapProperty(new StringProperty())));
+		oldSpec.path("/pets", new Path().get(new Operation()
+				.response(200, new Response().schema(new ArrayProperty(new RefProperty("Pet"))))));
+		newSpec.path("/pets", new Path().get(new Operation()
+				.response(200, new Response().schema(new ArrayProperty(new RefProperty("Pet"))))));
+
+		SwaggerDiff diff = SwaggerDiff.compare(oldSpec, newSpec);
+		ChangedOperation changedOperation = diff.getChangedEndpoints().get(0).getChangedOperations().values()
+				.iterator().next();
+		Assert.assertTrue(changedOperation.isDiffProp());
+		List<String> changes = new ArrayList<String>();
+		for (ElProperty prop : changedOperation.getChangedProps()) {
+			changes.add(prop.getEl() + " " + prop.getChangedAttributes());
+		}
+		Assert.assertEquals(Arrays.asList("name [maxLength 10 to 5]", "status [enum [available, sold] to [available]]",
+				"tags [maxItems null to 3]", "tags.name [maxLength null to 64]",
+				"meta.born [format date to date-time]", "scores [type integer to string, format int32 to null]"),
+				changes);
+
+		String markdown = new MarkdownRender().render(diff);
+		// the schema of 200 is compared once, as a response
+		Assert.assertEquals(1, changedOperation.getChangedResponses().size());
+		Assert.assertSame(changedOperation.getChangedProps(), changedOperation.getReturnType().getChangedProps());
+		Assert.assertTrue(markdown.contains("Change name maxLength 10 to 5 in 200\n"));
+		Assert.assertTrue(markdown.contains("Change scores type integer to string, format int32 to none in 200\n"));
+		Assert.assertEquals(markdown.indexOf("Change name maxLength"), markdown.lastIndexOf("Change name maxLength"));
+
+		// a tighter response is compatible, a wider one is not
+		List<String> rules = new ArrayList<String>();
+		for (BreakingChange change : diff.getBreakingChanges()) {
+			rules.add(change.getRule() + " " + change.getEl());
+		}
+		Assert.assertEquals(Arrays.asList(CompatibilityCheck.WIDENED_RESPONSE_PROPERTY + " meta.born",
+				CompatibilityCheck.WIDENED_RESPONSE_PROPERTY + " scores"), rules);
+
+		// the same changes in a request body break the clients sending it
+		oldSpec.path("/pets", new Path().post(new Operation()
+				.parameter(new BodyParameter().name("body").schema(new RefModel("Pet")))));
+		newSpec.path("/pets", new Path().post(new Operation()
+				.parameter(new BodyParameter().name("body").schema(new RefModel("Pet")))));
+		rules.clear();
+		for (BreakingChange change : SwaggerDiff.compare(oldSpec, newSpec).getBreakingChanges()) {
+			rules.add(change.getRule() + " " + change.getEl());
+		}
+		Assert.assertEquals(Arrays.asList(CompatibilityCheck.NARROWED_REQUEST_PROPERTY + " body.name",
+				CompatibilityCheck.NARROWED_REQUEST_PROPERTY + " body.status",
+				CompatibilityCheck.NARROWED_REQUEST_PROPERTY + " body.tags",
+				CompatibilityCheck.NARROWED_REQUEST_PROPERTY + " body.tags.name",
+				CompatibilityCheck.NARROWED_REQUEST_PROPERTY + " body.meta.born",
+				CompatibilityCheck.NARROWED_REQUEST_PROPERTY + " body.scores"), rules);
+	}
+
+}
@@ -49,6 +49,9 @@ public class CLITest {
         argv = new String[] { "--help", "-v", "1.0", "-output-mode", "html" };
         JCommander.newBuilder().addObject(cli).build().parse(argv);
 
+        argv = new String[] { "--help", "-output-mode", "ndjson" };
+        JCommander.newBuilder().addObject(cli).build().parse(argv);
+
         argv = new String[] { "--help", "-v", "1.1.0" };
         try {
             JCommander.newBuilder().addObject(cli).build().parse(argv);
@@ -96,4 +99,43 @@ public class CLITest {
         Assert.assertTrue(outContent.toString().startsWith("## Version 1.0.0 to 1.0.2"));
     }
 
+    @Test
+    public void testMainWithManyNewSpecs() {
+        CLI cli = new CLI();
+        String[] argv = { "-old", "petstore_v2_1.json", "-new", "petstore_v2_2.json", "-new", "petstore_v2_1.json" };
+        JCommander jCommander = JCommander.newBuilder().addObject(cli).build();
+        jCommander.parse(argv);
+        Assert.assertEquals(2, cli.getNewSpecs().size());
+        cli.run(jCommander);
+        String output = outContent.toString();
+        Assert.assertTrue(output.startsWith("## Version 1.0.0 to 1.0.2"));
+        Assert.assertTrue(output.contains("## Version 1.0.0 to 1.0.0"));
+    }
+
+    @Test
+    public void testFailOnBreaking() {
+        CLI cli = new CLI();
+        String[] argv = { "-old", "petstore_v2_1.json", "-new", "petstore_v2_1.json", "-fail-on-breaking" };
+        JCommander jCommander = JCommander.newBuilder().addObject(cli).build();
+        jCommander.parse(argv);
+        Assert.assertEquals(0, cli.execute(jCommander));
+        Assert.assertEquals("", outContent.toString());
+
+        cli = new CLI();
+        argv = new String[] { "-old", "petstore_v2_2.json", "-new", "petstore_v2_1.json", "-fail-on-breaking" };
+        jCommander = JCommander.newBuilder().addObject(cli).build();
+        jCommander.parse(argv);
+        Assert.assertEquals(CLI.EXIT_BREAKING, cli.execute(jCommander));
+        Assert.assertTrue(outContent.toString().startsWith("breaking change from petstore_v2_2.json to petstore_v2_1.json: "));
+    }
+
+    @Test(expected = ParameterException.class)
+    public void testMissingSpecs() {
+        CLI cli = new CLI();
+        String[] argv = { "-old", "petstore_v2_1.json" };
+        JCommander jCommander = JCommander.newBuilder().addObject(cli).build();
+        jCommander.parse(argv);
+        cli.run(jCommander);
+    }
+
 }
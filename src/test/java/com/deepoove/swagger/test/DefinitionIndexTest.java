@@ -0,0 +1,44 @@
+package com.deepoove.swagger.test;
+
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.deepoove.swagger.diff.SwaggerDiff;
+import com.deepoove.swagger.diff.compare.DefinitionIndex;
+import com.deepoove.swagger.diff.compare.PreparedSpec;
+
+import io.swagger.models.properties.Property;
+import io.swagger.models.properties.RefProperty;
+
+public class DefinitionIndexTest {
+
+	final String SWAGGER_V2_RECURSIVE_DOC1 = "recursive_v2_1.json";
+
+	@Test
+	public void testDefinitionIndex() {
+		PreparedSpec spec = SwaggerDiff.prepareV2(SWAGGER_V2_RECURSIVE_DOC1);
+		DefinitionIndex index = spec.getDefinitionIndex();
+		Assert.assertSame(index, spec.getDefinitionIndex());
+		Assert.assertEquals(spec.getDefinitions().size(), index.size());
+		for (String name : spec.getDefinitions().keySet()) {
+			int id = index.id(name);
+			Assert.assertEquals(name, index.name(id));
+			Assert.assertSame(spec.getDefinitions().get(name), index.model(id));
+			for (Map.Entry<String, Property> entry : index.properties(id).entrySet()) {
+				Property property = entry.getValue();
+				int ref = index.ref(property);
+				if (property instanceof RefProperty) {
+					Assert.assertEquals(((RefProperty) property).getSimpleRef(), index.name(ref));
+				} else {
+					Assert.assertEquals(DefinitionIndex.NONE, ref);
+				}
+			}
+		}
+		Assert.assertEquals(DefinitionIndex.NONE, index.id("Undefined"));
+		Assert.assertEquals(DefinitionIndex.NONE, index.ref(new RefProperty("Undefined")));
+		Assert.assertEquals(0, DefinitionIndex.of(null).size());
+	}
+
+}
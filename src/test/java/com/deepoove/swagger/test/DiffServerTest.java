@@ -0,0 +1,119 @@
+package com.deepoove.swagger.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.deepoove.swagger.diff.SwaggerDiff;
+import com.deepoove.swagger.diff.cli.DiffServer;
+import com.deepoove.swagger.diff.output.MarkdownRender;
+
+public class DiffServerTest {
+
+	private DiffServer server;
+
+	@Before
+	public void start() throws IOException {
+		server = new DiffServer(0, 2, null, new File("src/test/resources"));
+		server.start();
+	}
+
+	@After
+	public void stop() {
+		server.stop();
+	}
+
+	@Test
+	public void testDiff() throws IOException {
+		String expected = new MarkdownRender()
+				.render(SwaggerDiff.compareV2("petstore_v2_1.json", "petstore_v2_2.json"));
+		Assert.assertEquals(expected, get("old=petstore_v2_1.json&new=petstore_v2_2.json"));
+		Assert.assertEquals(2, server.getCache().getMisses());
+
+		// the baseline is not parsed again
+		Assert.assertTrue(get("old=petstore_v2_1.json&new=petstore_v2_1.json&output-mode=markdown")
+				.startsWith("## Version 1.0.0 to 1.0.0"));
+		Assert.assertEquals(2, server.getCache().getMisses());
+		Assert.assertEquals(2, server.getCache().getHits());
+
+		Assert.assertTrue(get("old=petstore_v2_1.json&new=petstore_v2_2.json&output-mode=html")
+				.endsWith("</body></html>"));
+		Assert.assertTrue(get("old=petstore_v2_1.json&new=petstore_v2_2.json&output-mode=json")
+				.startsWith("{\"oldVersion\":\"1.0.0\""));
+	}
+
+	@Test
+	public void testBadRequest() throws IOException {
+		Assert.assertEquals(400, status("old=petstore_v2_1.json"));
+		Assert.assertEquals(400, status("old=petstore_v2_1.json&new=petstore_v2_2.json&output-mode=pdf"));
+		Assert.assertEquals(422, status("old=petstore_v2_1.json&new=not_exist.json"));
+		Assert.assertEquals("cannot compare api-docs.", error("old=petstore_v2_1.json&new=not_exist.json"));
+	}
+
+	@Test
+	public void testLocationOutOfRoot() throws IOException {
+		Assert.assertEquals(403, status("old=petstore_v2_1.json&new=../../../pom.xml"));
+		Assert.assertEquals(403, status("old=file:/etc/hosts&new=petstore_v2_2.json"));
+		Assert.assertEquals(403, status("old=petstore_v2_1.json&new=http://localhost:" + server.getPort() + "/"));
+		Assert.assertEquals("api-doc locations should be files under the root directory.",
+				error("old=petstore_v2_1.json&new=../../../pom.xml"));
+		// nothing was read
+		Assert.assertEquals(0, server.getCache().getMisses());
+	}
+
+	private HttpURLConnection connect(String query) throws IOException {
+		URL url = new URL("http://localhost:" + server.getPort() + DiffServer.CONTEXT + "?" + query);
+		return (HttpURLConnection) url.openConnection();
+	}
+
+	private int status(String query) throws IOException {
+		HttpURLConnection connection = connect(query);
+		try {
+			return connection.getResponseCode();
+		} finally {
+			connection.disconnect();
+		}
+	}
+
+	private String error(String query) throws IOException {
+		HttpURLConnection connection = connect(query);
+		try {
+			Assert.assertTrue(connection.getResponseCode() >= 400);
+			return read(connection.getErrorStream());
+		} finally {
+			connection.disconnect();
+		}
+	}
+
+	private String get(String query) throws IOException {
+		HttpURLConnection connection = connect(query);
+		try {
+			Assert.assertEquals(200, connection.getResponseCode());
+			return read(connection.getInputStream());
+		} finally {
+			connection.disconnect();
+		}
+	}
+
+	private String read(InputStream in) throws IOException {
+		Reader reader = new InputStreamReader(in, "UTF-8");
+		StringBuilder sb = new StringBuilder();
+		char[] buffer = new char[1024];
+		int n;
+		while (-1 != (n = reader.read(buffer))) {
+			sb.append(buffer, 0, n);
+		}
+		reader.close();
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,51 @@
+package com.deepoove.swagger.test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.deepoove.swagger.diff.SwaggerDiff;
+import com.deepoove.swagger.diff.model.ElPath;
+import com.deepoove.swagger.diff.model.ElProperty;
+
+import io.swagger.models.Info;
+import io.swagger.models.ModelImpl;
+import io.swagger.models.Operation;
+import io.swagger.models.Path;
+import io.swagger.models.Response;
+import io.swagger.models.Swagger;
+import io.swagger.models.properties.IntegerProperty;
+import io.swagger.models.properties.RefProperty;
+import io.swagger.models.properties.StringProperty;
+
+public class ElPathTest {
+
+	@Test
+	public void testElPath() {
+		Assert.assertEquals("category.tags.name", ElPath.of("category.tags.name").toString());
+		Assert.assertEquals("name", new ElPath(null, "name").toString());
+
+		Swagger oldSpec = new Swagger().info(new Info().version("1.0.0"));
+		Swagger newSpec = new Swagger().info(new Info().version("1.0.1"));
+		oldSpec.addDefinition("Category", new ModelImpl().property("id", new IntegerProperty()));
+		newSpec.addDefinition("Category", new ModelImpl().property("id", new IntegerProperty())
+				.property("name", new StringProperty()).property("code", new StringProperty()));
+		for (String name : Arrays.asList("Pet", "Store")) {
+			oldSpec.addDefinition(name, new ModelImpl().property("category", new RefProperty("Category")));
+			newSpec.addDefinition(name, new ModelImpl().property("category", new RefProperty("Category")));
+		}
+		oldSpec.path("/pets", new Path().get(new Operation()
+				.response(200, new Response().schema(new RefProperty("Pet")))));
+		newSpec.path("/pets", new Path().get(new Operation()
+				.response(200, new Response().schema(new RefProperty("Pet")))));
+		List<ElProperty> addProps = SwaggerDiff.compare(oldSpec, newSpec).getChangedEndpoints().get(0)
+				.getChangedOperations().values().iterator().next().getAddProps();
+		Assert.assertEquals("category.name", addProps.get(0).getEl());
+		Assert.assertEquals("category.code", addProps.get(1).getEl());
+		// the properties under category share its node
+		Assert.assertSame(addProps.get(0).getPath().getParent(), addProps.get(1).getPath().getParent());
+	}
+
+}
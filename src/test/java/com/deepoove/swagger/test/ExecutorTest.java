@@ -0,0 +1,67 @@
+package com.deepoove.swagger.test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.deepoove.swagger.diff.SwaggerDiff;
+import com.deepoove.swagger.diff.output.MarkdownRender;
+
+public class ExecutorTest {
+
+	final String SWAGGER_V2_DOC1 = "petstore_v2_1.json";
+	final String SWAGGER_V2_DOC2 = "petstore_v2_2.json";
+
+	@Test
+	public void testDiffWithExecutor() {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			SwaggerDiff diff = SwaggerDiff.compare(SWAGGER_V2_DOC1, SWAGGER_V2_DOC2, null,
+					SwaggerDiff.SWAGGER_VERSION_V2, executor);
+			String expected = new MarkdownRender()
+					.render(SwaggerDiff.compareV2(SWAGGER_V2_DOC1, SWAGGER_V2_DOC2));
+			Assert.assertEquals(expected, new MarkdownRender().render(diff));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void testDiffWithExecutorUnreadableSpec() {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			SwaggerDiff.compare(SWAGGER_V2_DOC1, "not_exist.json", null,
+					SwaggerDiff.SWAGGER_VERSION_V2, executor);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testCompareAllAndChain() {
+		String expected = new MarkdownRender().render(SwaggerDiff.compareV2(SWAGGER_V2_DOC1, SWAGGER_V2_DOC2));
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			List<SwaggerDiff> diffs = SwaggerDiff.compareAll(SWAGGER_V2_DOC1,
+					Arrays.asList(SWAGGER_V2_DOC2, SWAGGER_V2_DOC1), null, SwaggerDiff.SWAGGER_VERSION_V2, executor);
+			Assert.assertEquals(2, diffs.size());
+			Assert.assertEquals(expected, new MarkdownRender().render(diffs.get(0)));
+			TestSupport.assertEqual(diffs.get(1));
+
+			diffs = SwaggerDiff.compareChain(Arrays.asList(SWAGGER_V2_DOC1, SWAGGER_V2_DOC2, SWAGGER_V2_DOC2),
+					null, SwaggerDiff.SWAGGER_VERSION_V2, executor);
+			Assert.assertEquals(2, diffs.size());
+			Assert.assertEquals(expected, new MarkdownRender().render(diffs.get(0)));
+			TestSupport.assertEqual(diffs.get(1));
+		} finally {
+			executor.shutdown();
+		}
+		Assert.assertTrue(SwaggerDiff.compareChain(Arrays.asList(SWAGGER_V2_DOC1), null,
+				SwaggerDiff.SWAGGER_VERSION_V2, null).isEmpty());
+	}
+
+}
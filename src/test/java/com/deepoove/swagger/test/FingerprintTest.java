@@ -0,0 +1,66 @@
+package com.deepoove.swagger.test;
+
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.deepoove.swagger.diff.SwaggerDiff;
+import com.deepoove.swagger.diff.compare.PreparedSpec;
+import com.deepoove.swagger.diff.model.ChangedEndpoint;
+import com.deepoove.swagger.diff.model.ChangedOperation;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+
+import io.swagger.models.HttpMethod;
+
+public class FingerprintTest {
+
+	final String SWAGGER_V2_DOC1 = "petstore_v2_1.json";
+	final String SWAGGER_V2_DOC2 = "petstore_v2_2.json";
+
+	@Test
+	public void testFingerprintSkipsUnchanged() {
+		PreparedSpec baseline = SwaggerDiff.prepareV2(SWAGGER_V2_DOC2);
+		SwaggerDiff equal = SwaggerDiff.compare(baseline, SwaggerDiff.prepareV2(SWAGGER_V2_DOC2));
+		Assert.assertEquals(0, equal.getComparedOperations());
+		Assert.assertEquals(0, equal.getComparedDefinitions());
+		Assert.assertEquals(19, equal.getSkippedOperations());
+		TestSupport.assertEqual(equal);
+
+		// the changed operations and the ones referring to a changed
+		// definition are compared, the unchanged definitions they refer to
+		// are skipped
+		SwaggerDiff diff = SwaggerDiff.compareV2(SWAGGER_V2_DOC1, SWAGGER_V2_DOC2);
+		Assert.assertEquals(12, diff.getComparedOperations());
+		Assert.assertEquals(6, diff.getSkippedOperations());
+		Assert.assertEquals(3, diff.getComparedDefinitions());
+		Assert.assertEquals(2, diff.getSkippedDefinitions());
+		Assert.assertEquals(TestSupport.PETSTORE_CHANGES, TestSupport.changes(diff));
+	}
+
+	@Test
+	public void testFingerprintSkipsUnchangedOnce() throws IOException {
+		ObjectMapper mapper = new ObjectMapper();
+		JsonNode oldDoc = mapper.readTree(TestSupport.readResource(SWAGGER_V2_DOC2));
+		JsonNode newDoc = mapper.readTree(TestSupport.readResource(SWAGGER_V2_DOC2));
+		((ArrayNode) newDoc.get("paths").get("/user/login").get("get").get("parameters")).addObject()
+				.put("name", "otp").put("in", "query").put("type", "string");
+
+		// a single comparison, neither doc was hashed before
+		SwaggerDiff diff = SwaggerDiff.compareV2(oldDoc, newDoc);
+		Assert.assertEquals(1, diff.getComparedOperations());
+		Assert.assertEquals(18, diff.getSkippedOperations());
+		Assert.assertEquals(1, diff.getChangedEndpoints().size());
+		ChangedEndpoint changedEndpoint = diff.getChangedEndpoints().get(0);
+		Assert.assertEquals("/user/login", changedEndpoint.getPathUrl());
+		ChangedOperation changedOperation = changedEndpoint.getChangedOperations().get(HttpMethod.GET);
+		Assert.assertEquals(1, changedOperation.getAddParameters().size());
+		Assert.assertEquals("otp", changedOperation.getAddParameters().get(0).getName());
+		Assert.assertTrue(changedOperation.getMissingParameters().isEmpty());
+		Assert.assertTrue(changedOperation.getChangedParameter().isEmpty());
+		Assert.assertFalse(changedOperation.isDiffResponse());
+	}
+
+}
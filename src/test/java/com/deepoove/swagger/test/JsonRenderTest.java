@@ -0,0 +1,42 @@
+package com.deepoove.swagger.test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.deepoove.swagger.diff.SwaggerDiff;
+import com.deepoove.swagger.diff.output.JsonRender;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class JsonRenderTest {
+
+	final String SWAGGER_V2_DOC1 = "petstore_v2_1.json";
+	final String SWAGGER_V2_DOC2 = "petstore_v2_2.json";
+
+	@Test
+	public void testJsonRender() throws IOException {
+		SwaggerDiff diff = SwaggerDiff.compareV2(SWAGGER_V2_DOC1, SWAGGER_V2_DOC2);
+		ObjectMapper mapper = new ObjectMapper();
+		JsonNode json = mapper.readTree(new JsonRender().render(diff));
+		Assert.assertEquals(diff.getOldVersion(), json.get("oldVersion").asText());
+		int records = json.get("changes").size();
+		Assert.assertTrue(records >= diff.getNewEndpoints().size() + diff.getMissingEndpoints().size());
+		JsonNode first = json.get("changes").get(0);
+		Assert.assertEquals("endpoint", first.get("kind").asText());
+		Assert.assertEquals("add", first.get("change").asText());
+		Assert.assertEquals(diff.getNewEndpoints().get(0).getPathUrl(), first.get("path").asText());
+
+		StringWriter ndjson = new StringWriter();
+		new JsonRender(true).render(diff, ndjson);
+		String[] lines = ndjson.toString().split("\n");
+		Assert.assertEquals(records + 1, lines.length);
+		Assert.assertEquals("version", mapper.readTree(lines[0]).get("kind").asText());
+		for (int i = 1; i < lines.length; i++) {
+			Assert.assertEquals(json.get("changes").get(i - 1), mapper.readTree(lines[i]));
+		}
+	}
+
+}
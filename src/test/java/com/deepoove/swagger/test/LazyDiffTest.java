@@ -0,0 +1,63 @@
+package com.deepoove.swagger.test;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.deepoove.swagger.diff.SwaggerDiff;
+import com.deepoove.swagger.diff.compare.PreparedSpec;
+import com.deepoove.swagger.diff.model.ChangedEndpoint;
+import com.deepoove.swagger.diff.model.ChangedParameter;
+import com.deepoove.swagger.diff.output.MarkdownRender;
+
+import io.swagger.models.HttpMethod;
+
+public class LazyDiffTest {
+
+	final String SWAGGER_V2_DOC1 = "petstore_v2_1.json";
+	final String SWAGGER_V2_DOC2 = "petstore_v2_2.json";
+
+	@Test
+	public void testLazyDiff() {
+		PreparedSpec oldSpec = SwaggerDiff.prepareV2(SWAGGER_V2_DOC1);
+		PreparedSpec newSpec = SwaggerDiff.prepareV2(SWAGGER_V2_DOC2);
+		SwaggerDiff eager = SwaggerDiff.compare(oldSpec, newSpec);
+		SwaggerDiff lazy = SwaggerDiff.compareLazy(oldSpec, newSpec);
+		Assert.assertEquals("/pet/{petId}", lazy.getNewEndpoints().get(0).getPathUrl());
+		Assert.assertEquals(HttpMethod.GET, lazy.getNewEndpoints().get(0).getMethod());
+		Assert.assertEquals(1, lazy.getNewEndpoints().size());
+		Assert.assertEquals("/pet/{petId}", lazy.getMissingEndpoints().get(0).getPathUrl());
+		Assert.assertEquals(HttpMethod.POST, lazy.getMissingEndpoints().get(0).getMethod());
+		Assert.assertEquals(1, lazy.getMissingEndpoints().size());
+		// nothing compared before the changed endpoints are read
+		Assert.assertEquals(0, lazy.getComparedOperations());
+		Assert.assertEquals(0, lazy.getComparedDefinitions());
+
+		// only the put and post of /pet are compared
+		ChangedEndpoint first = lazy.changedEndpoints().iterator().next();
+		Assert.assertEquals("/pet", first.getPathUrl());
+		Assert.assertEquals("[PUT, POST]", first.getChangedOperations().keySet().toString());
+		ChangedParameter body = first.getChangedOperations().get(HttpMethod.POST).getChangedParameter().get(0);
+		Assert.assertEquals("body", body.getRightParameter().getName());
+		Assert.assertEquals("body.newFeild", body.getIncreased().get(0).getEl());
+		Assert.assertEquals("body.category.newCatFeild", body.getIncreased().get(1).getEl());
+		Assert.assertEquals("body.category.name", body.getMissing().get(0).getEl());
+		Assert.assertEquals(2, lazy.getComparedOperations());
+		Assert.assertEquals(2, lazy.getComparedDefinitions());
+		// the compared path is kept
+		Assert.assertSame(first, lazy.changedEndpoints().iterator().next());
+		Assert.assertEquals(2, lazy.getComparedOperations());
+
+		Assert.assertEquals(TestSupport.PETSTORE_CHANGES, TestSupport.changes(lazy));
+		Assert.assertEquals(TestSupport.PETSTORE_CHANGES, TestSupport.changes(eager));
+		Assert.assertEquals(new MarkdownRender().render(eager), new MarkdownRender().render(lazy));
+		Assert.assertEquals(12, lazy.getComparedOperations());
+		Assert.assertEquals(eager.getComparedOperations(), lazy.getComparedOperations());
+		Assert.assertEquals(eager.getDefinitionDiff().getRenamed(), lazy.getDefinitionDiff().getRenamed());
+		Assert.assertTrue(lazy.getDefinitionDiff().getRenamed().isEmpty());
+		Assert.assertEquals(eager.getBreakingChanges().toString(), lazy.getBreakingChanges().toString());
+		Assert.assertEquals(5, lazy.getBreakingChanges().size());
+		Assert.assertEquals(new MarkdownRender().render(eager),
+				new MarkdownRender().render(SwaggerDiff.compare(SwaggerDiff.compareLazy(oldSpec, oldSpec), newSpec)));
+	}
+
+}
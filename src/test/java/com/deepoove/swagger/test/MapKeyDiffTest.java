@@ -0,0 +1,53 @@
+package com.deepoove.swagger.test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.deepoove.swagger.diff.compare.MapKeyDiff;
+
+public class MapKeyDiffTest {
+
+	@Test
+	public void testMapKeyDiff() {
+		Map<String, Integer> left = new LinkedHashMap<String, Integer>();
+		Map<String, Integer> right = new LinkedHashMap<String, Integer>();
+		for (String key : Arrays.asList("d", "a", "c", "e")) {
+			left.put(key, key.charAt(0) - 'a');
+		}
+		for (String key : Arrays.asList("f", "c", "b", "a")) {
+			right.put(key, key.charAt(0) - 'a');
+		}
+		MapKeyDiff<String, Integer> diff = MapKeyDiff.diff(left, right);
+		Assert.assertEquals("[a, c]", diff.getSharedKey().toString());
+		Assert.assertEquals("{d=3, e=4}", diff.getMissing().toString());
+		Assert.assertEquals("{f=5, b=1}", diff.getIncreased().toString());
+		Assert.assertEquals(Integer.valueOf(5), diff.getIncreased().get("f"));
+		Assert.assertNull(diff.getIncreased().get("c"));
+		Assert.assertFalse(diff.getMissing().containsKey("a"));
+
+		// sorted maps are merged
+		diff = MapKeyDiff.diff(new TreeMap<String, Integer>(left), new TreeMap<String, Integer>(right));
+		Assert.assertEquals("[a, c]", diff.getSharedKey().toString());
+		Assert.assertEquals("{d=3, e=4}", diff.getMissing().toString());
+		Assert.assertEquals("{b=1, f=5}", diff.getIncreased().toString());
+		TreeMap<String, Integer> reversed = new TreeMap<String, Integer>(Collections.<String> reverseOrder());
+		reversed.putAll(right);
+		diff = MapKeyDiff.diff(new TreeMap<String, Integer>(left), reversed);
+		Assert.assertEquals("[a, c]", diff.getSharedKey().toString());
+		Assert.assertEquals("{f=5, b=1}", diff.getIncreased().toString());
+
+		diff = MapKeyDiff.diff(left, Collections.<String, Integer> singletonMap("z", 25));
+		Assert.assertTrue(diff.getSharedKey().isEmpty());
+		Assert.assertEquals(left, diff.getMissing());
+		diff = MapKeyDiff.diff(left, left);
+		Assert.assertTrue(diff.getMissing().isEmpty());
+		Assert.assertTrue(diff.getIncreased().isEmpty());
+	}
+
+}
@@ -0,0 +1,103 @@
+package com.deepoove.swagger.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.deepoove.swagger.diff.PreparedSpecCache;
+import com.deepoove.swagger.diff.SwaggerDiff;
+import com.deepoove.swagger.diff.compare.PreparedSpec;
+import com.deepoove.swagger.diff.output.MarkdownRender;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import io.swagger.parser.SwaggerParser;
+
+public class PreparedSpecCacheTest {
+
+	final String SWAGGER_V2_DOC1 = "petstore_v2_1.json";
+	final String SWAGGER_V2_DOC2 = "petstore_v2_2.json";
+	final String SWAGGER_V2_RECURSIVE_DOC1 = "recursive_v2_1.json";
+	final String SWAGGER_V2_RECURSIVE_DOC2 = "recursive_v2_2.json";
+
+	@Test
+	public void testCacheDirectory() throws IOException {
+		File dir = File.createTempFile("swagger-diff", "cache");
+		dir.delete();
+		try {
+			PreparedSpecCache cache = new PreparedSpecCache(4, dir);
+			cache.prepare(SWAGGER_V2_RECURSIVE_DOC1, null, SwaggerDiff.SWAGGER_VERSION_V2);
+			cache.prepare(SWAGGER_V2_DOC1, null, SwaggerDiff.SWAGGER_VERSION_V2);
+			cache.prepare(SWAGGER_V2_DOC2, null, SwaggerDiff.SWAGGER_VERSION_V2);
+			Assert.assertEquals(3, cache.getMisses());
+			Assert.assertEquals(3, dir.listFiles().length);
+
+			// another run reads the saved docs
+			cache = new PreparedSpecCache(4, dir);
+			PreparedSpec oldSpec = cache.prepare(SWAGGER_V2_DOC1, null, SwaggerDiff.SWAGGER_VERSION_V2);
+			PreparedSpec newSpec = cache.prepare(SWAGGER_V2_DOC2, null, SwaggerDiff.SWAGGER_VERSION_V2);
+			PreparedSpec recursive = cache.prepare(SWAGGER_V2_RECURSIVE_DOC1, null, SwaggerDiff.SWAGGER_VERSION_V2);
+			Assert.assertEquals(0, cache.getMisses());
+			Assert.assertEquals(3, cache.getHits());
+			SwaggerDiff diff = SwaggerDiff.compare(oldSpec, newSpec);
+			Assert.assertEquals(TestSupport.PETSTORE_CHANGES, TestSupport.changes(diff));
+			Assert.assertEquals(new MarkdownRender().render(SwaggerDiff.compareV2(SWAGGER_V2_DOC1, SWAGGER_V2_DOC2)),
+					new MarkdownRender().render(diff));
+			SwaggerDiff recursiveDiff = SwaggerDiff.compare(recursive, SwaggerDiff.prepareV2(SWAGGER_V2_RECURSIVE_DOC2));
+			Assert.assertEquals(Arrays.asList(
+					"POST /nodes [~body, +body.label, +body.sibling, +body.owner.email, +label, +sibling, +owner.email]",
+					"GET /nodes/{id} [+label, +sibling, +owner.email]"), TestSupport.changes(recursiveDiff));
+			Assert.assertEquals(
+					new MarkdownRender().render(SwaggerDiff.compareV2(SWAGGER_V2_RECURSIVE_DOC1, SWAGGER_V2_RECURSIVE_DOC2)),
+					new MarkdownRender().render(recursiveDiff));
+			Assert.assertEquals(0, SwaggerDiff.compare(newSpec, SwaggerDiff.prepareV2(SWAGGER_V2_DOC2)).getComparedOperations());
+			// the models read back hash the same as the parsed ones
+			SwaggerDiff reread = SwaggerDiff.compare(PreparedSpec.of(newSpec.getSwagger()), SwaggerDiff.prepareV2(SWAGGER_V2_DOC2));
+			Assert.assertEquals(0, reread.getComparedOperations());
+			Assert.assertEquals(0, reread.getComparedDefinitions());
+			Assert.assertEquals(SwaggerDiff.prepareV2(SWAGGER_V2_DOC2).getSwagger().getHost(),
+					newSpec.getSwagger().getHost());
+		} finally {
+			for (File file : dir.listFiles()) {
+				file.delete();
+			}
+			dir.delete();
+		}
+	}
+
+	@Test
+	public void testCacheReadsOnce() throws IOException {
+		final byte[] content = TestSupport.readResource(SWAGGER_V2_DOC1);
+		final AtomicInteger requests = new AtomicInteger();
+		HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/swagger.json", new HttpHandler() {
+			public void handle(HttpExchange exchange) throws IOException {
+				requests.incrementAndGet();
+				exchange.sendResponseHeaders(200, content.length);
+				exchange.getResponseBody().write(content);
+				exchange.close();
+			}
+		});
+		server.start();
+		try {
+			String url = "http://localhost:" + server.getAddress().getPort() + "/swagger.json";
+			PreparedSpec spec = new PreparedSpecCache(4).prepare(url, null, SwaggerDiff.SWAGGER_VERSION_V2);
+			// the key and the parsed doc come from the same request
+			Assert.assertEquals(1, requests.get());
+			TestSupport.assertEqual(SwaggerDiff.compare(spec, SwaggerDiff.prepareV2(SWAGGER_V2_DOC1)));
+			// parsed the same way as without the cache
+			Assert.assertEquals(new SwaggerParser().read(url, null, true), spec.getSwagger());
+			Assert.assertEquals(new SwaggerParser().read(SWAGGER_V2_DOC1, null, true),
+					new PreparedSpecCache(4).prepare(SWAGGER_V2_DOC1, null, SwaggerDiff.SWAGGER_VERSION_V2).getSwagger());
+		} finally {
+			server.stop(0);
+		}
+	}
+
+}
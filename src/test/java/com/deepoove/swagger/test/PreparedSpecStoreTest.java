@@ -0,0 +1,98 @@
+package com.deepoove.swagger.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.deepoove.swagger.diff.PreparedSpecCache;
+import com.deepoove.swagger.diff.SwaggerDiff;
+import com.deepoove.swagger.diff.compare.PreparedSpec;
+import com.deepoove.swagger.diff.output.JsonRender;
+import com.deepoove.swagger.diff.output.MarkdownRender;
+
+import io.swagger.models.ComposedModel;
+import io.swagger.models.ModelImpl;
+import io.swagger.models.Swagger;
+import io.swagger.models.properties.DecimalProperty;
+import io.swagger.util.Json;
+
+public class PreparedSpecStoreTest {
+
+	final String SWAGGER_V2_FEATURES_DOC1 = "features_v2_1.json";
+	final String SWAGGER_V2_FEATURES_DOC2 = "features_v2_2.json";
+
+	private File dir;
+
+	@Before
+	public void createDir() throws IOException {
+		dir = File.createTempFile("swagger-diff", "cache");
+		dir.delete();
+	}
+
+	@After
+	public void deleteDir() {
+		File[] files = dir.listFiles();
+		if (null != files) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		dir.delete();
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		PreparedSpec parsed = new PreparedSpecCache(4, dir).prepare(SWAGGER_V2_FEATURES_DOC1, null,
+				SwaggerDiff.SWAGGER_VERSION_V2);
+		PreparedSpecCache cache = new PreparedSpecCache(4, dir);
+		PreparedSpec loaded = cache.prepare(SWAGGER_V2_FEATURES_DOC1, null, SwaggerDiff.SWAGGER_VERSION_V2);
+		Assert.assertEquals(0, cache.getMisses());
+		Assert.assertEquals(1, cache.getHits());
+		Assert.assertNotSame(parsed, loaded);
+
+		// vendor extensions, composed models, body and form parameters,
+		// response headers and decimals come back as they were parsed, the
+		// models only differ by what json does not hold: the order of the
+		// required properties and the parent of a composed model
+		Swagger swagger = loaded.getSwagger();
+		Assert.assertEquals(Json.mapper().writeValueAsString(parsed.getSwagger()),
+				Json.mapper().writeValueAsString(swagger));
+		Assert.assertEquals(parsed.getSwagger().getPaths(), swagger.getPaths());
+		Assert.assertEquals(parsed.getSwagger().getVendorExtensions(), swagger.getVendorExtensions());
+		Assert.assertEquals(new BigDecimal("0.5"),
+				((DecimalProperty) ((ModelImpl) swagger.getDefinitions().get("Pet")).getProperties().get("weight"))
+						.getMinimum());
+		Assert.assertEquals("pets-team", swagger.getPath("/pets").getVendorExtensions().get("x-owner"));
+		Assert.assertTrue(swagger.getDefinitions().get("Dog") instanceof ComposedModel);
+		Assert.assertEquals(parsed.getFingerprint().getOperations(), loaded.getFingerprint().getOperations());
+		Assert.assertEquals(parsed.getFingerprint().getDefinitions(), loaded.getFingerprint().getDefinitions());
+
+		// the same comparison, in both directions
+		PreparedSpec newSpec = SwaggerDiff.prepareV2(SWAGGER_V2_FEATURES_DOC2);
+		SwaggerDiff fromParsed = SwaggerDiff.compare(parsed, newSpec);
+		SwaggerDiff fromLoaded = SwaggerDiff.compare(loaded, newSpec);
+		String json = new JsonRender().render(fromParsed);
+		Assert.assertEquals(json, new JsonRender().render(fromLoaded));
+		Assert.assertEquals(new MarkdownRender().render(fromParsed), new MarkdownRender().render(fromLoaded));
+		Assert.assertEquals(new JsonRender().render(SwaggerDiff.compare(newSpec, parsed)),
+				new JsonRender().render(SwaggerDiff.compare(newSpec, loaded)));
+		Assert.assertEquals("{\"oldVersion\":\"1.0.0\",\"newVersion\":\"1.1.0\",\"changes\":["
+				+ "{\"kind\":\"property\",\"change\":\"add\",\"path\":\"/pets\",\"method\":\"POST\","
+				+ "\"in\":\"parameter\",\"parameter\":\"body\",\"el\":\"body.tags.color\"},"
+				+ "{\"kind\":\"property\",\"change\":\"modify\",\"path\":\"/pets\",\"method\":\"POST\","
+				+ "\"in\":\"parameter\",\"parameter\":\"body\",\"el\":\"body.fee\","
+				+ "\"attributes\":[{\"name\":\"minimum\",\"old\":\"0.5\",\"new\":\"1.5\"}]},"
+				+ "{\"kind\":\"header\",\"change\":\"modify\",\"path\":\"/pets\",\"method\":\"POST\","
+				+ "\"code\":\"200\",\"name\":\"X-Rate-Limit\"},"
+				+ "{\"kind\":\"header\",\"change\":\"delete\",\"path\":\"/pets\",\"method\":\"POST\","
+				+ "\"code\":\"200\",\"name\":\"X-Request-Id\"},"
+				+ "{\"kind\":\"parameter\",\"change\":\"add\",\"path\":\"/pets/{petId}/photo\","
+				+ "\"method\":\"POST\",\"name\":\"alt\",\"in\":\"formData\"}]}", json);
+	}
+
+}
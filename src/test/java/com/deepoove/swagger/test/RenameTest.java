@@ -0,0 +1,111 @@
+package com.deepoove.swagger.test;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.deepoove.swagger.diff.SwaggerDiff;
+import com.deepoove.swagger.diff.compare.CompatibilityCheck;
+import com.deepoove.swagger.diff.compare.DefinitionDiff;
+import com.deepoove.swagger.diff.model.BreakingChange;
+import com.deepoove.swagger.diff.model.ChangedEndpoint;
+import com.deepoove.swagger.diff.model.ChangedOperation;
+import com.deepoove.swagger.diff.model.ChangedParameter;
+import com.deepoove.swagger.diff.output.HtmlRender;
+import com.deepoove.swagger.diff.output.JsonRender;
+import com.deepoove.swagger.diff.output.MarkdownRender;
+
+import io.swagger.models.HttpMethod;
+import io.swagger.models.Info;
+import io.swagger.models.ModelImpl;
+import io.swagger.models.Operation;
+import io.swagger.models.Path;
+import io.swagger.models.Swagger;
+import io.swagger.models.parameters.PathParameter;
+import io.swagger.models.properties.IntegerProperty;
+import io.swagger.models.properties.RefProperty;
+import io.swagger.models.properties.StringProperty;
+
+public class RenameTest {
+
+	@Test
+	public void testRenamedPathParameter() {
+		Swagger oldSpec = new Swagger().info(new Info().version("1.0.0"));
+		Swagger newSpec = new Swagger().info(new Info().version("1.0.1"));
+		oldSpec.path("/pet/{petId}", new Path().get(new Operation()
+				.parameter(new PathParameter().name("petId").type("integer"))).delete(new Operation()));
+		newSpec.path("/pet/{id}", new Path().get(new Operation()
+				.parameter(new PathParameter().name("id").type("integer"))));
+		oldSpec.path("/store/", new Path().get(new Operation()));
+		newSpec.path("/store", new Path().get(new Operation()));
+		// two new paths with the same template are not matched
+		oldSpec.path("/user/{name}", new Path().get(new Operation()));
+		newSpec.path("/user/{id}", new Path().get(new Operation()));
+		newSpec.path("/user/{login}", new Path().get(new Operation()));
+
+		SwaggerDiff diff = SwaggerDiff.compare(oldSpec, newSpec);
+		Assert.assertEquals(1, diff.getChangedEndpoints().size());
+		ChangedEndpoint changedEndpoint = diff.getChangedEndpoints().get(0);
+		Assert.assertEquals("/pet/{id}", changedEndpoint.getPathUrl());
+		Assert.assertEquals("/pet/{petId}", changedEndpoint.getOldPathUrl());
+		ChangedOperation changedOperation = changedEndpoint.getChangedOperations().get(HttpMethod.GET);
+		// the path parameters are matched by position
+		Assert.assertTrue(changedOperation.getAddParameters().isEmpty());
+		Assert.assertTrue(changedOperation.getMissingParameters().isEmpty());
+		ChangedParameter changedParameter = changedOperation.getChangedParameter().get(0);
+		Assert.assertTrue(changedParameter.isChangeName());
+		Assert.assertFalse(changedParameter.isChangeType());
+		Assert.assertEquals("petId", changedParameter.getLeftParameter().getName());
+		// the removed endpoints break, the renamed path parameter does not
+		Assert.assertEquals(2, diff.getBreakingChanges().size());
+		for (BreakingChange change : diff.getBreakingChanges()) {
+			Assert.assertEquals(CompatibilityCheck.REMOVED_ENDPOINT, change.getRule());
+		}
+		Assert.assertTrue(new MarkdownRender().render(diff).contains("/pet/{id} (was /pet/{petId})"));
+		Assert.assertTrue(new HtmlRender().render(diff).contains("<del>/pet/{petId}</del>"));
+		Assert.assertTrue(new JsonRender().render(diff).contains("\"oldPath\":\"/pet/{petId}\""));
+
+		Assert.assertEquals(2, diff.getNewEndpoints().size());
+		Assert.assertEquals(2, diff.getMissingEndpoints().size());
+		Assert.assertEquals("/user/{name}", diff.getMissingEndpoints().get(0).getPathUrl());
+		Assert.assertEquals("/pet/{petId}", diff.getMissingEndpoints().get(1).getPathUrl());
+		Assert.assertEquals(HttpMethod.DELETE, diff.getMissingEndpoints().get(1).getMethod());
+	}
+
+	@Test
+	public void testRenamedDefinition() {
+		Swagger oldSpec = new Swagger().info(new Info().version("1.0.0"));
+		Swagger newSpec = new Swagger().info(new Info().version("1.0.1"));
+		oldSpec.addDefinition("Pet", new ModelImpl().property("id", new IntegerProperty())
+				.property("name", new StringProperty()).property("status", new StringProperty())
+				.property("category", new RefProperty("Category")));
+		newSpec.addDefinition("PetV2", new ModelImpl().property("id", new IntegerProperty())
+				.property("name", new StringProperty()).property("status", new StringProperty())
+				.property("category", new RefProperty("CategoryV2")).property("photoUrl", new StringProperty()));
+		oldSpec.addDefinition("Category", new ModelImpl().property("id", new IntegerProperty())
+				.property("name", new StringProperty()));
+		newSpec.addDefinition("CategoryV2", new ModelImpl().property("id", new IntegerProperty())
+				.property("name", new StringProperty()));
+		oldSpec.addDefinition("Tag", new ModelImpl().property("id", new IntegerProperty())
+				.property("name", new StringProperty()).property("color", new StringProperty()));
+		newSpec.addDefinition("Label", new ModelImpl().property("id", new IntegerProperty())
+				.property("text", new StringProperty()));
+
+		SwaggerDiff diff = SwaggerDiff.compare(oldSpec, newSpec);
+		DefinitionDiff definitionDiff = diff.getDefinitionDiff();
+		Assert.assertEquals("{Pet=PetV2, Category=CategoryV2}", definitionDiff.getRenamed().toString());
+		Assert.assertEquals("[Tag]", definitionDiff.getMissing().keySet().toString());
+		Assert.assertEquals("[Label]", definitionDiff.getIncreased().keySet().toString());
+
+		// a renamed definition is rendered once, as renamed
+		String markdown = new MarkdownRender().render(diff);
+		Assert.assertTrue(markdown.contains("* Rename `Pet` to `PetV2`\n"));
+		Assert.assertTrue(markdown.contains("* Add `Label`\n* Delete `Tag`\n"));
+		Assert.assertEquals(markdown.indexOf("`Pet`"), markdown.lastIndexOf("`Pet`"));
+		Assert.assertEquals(markdown.indexOf("`PetV2`"), markdown.lastIndexOf("`PetV2`"));
+		String html = new HtmlRender().render(diff);
+		Assert.assertTrue(html.contains("<li>Rename <del>Pet</del> to <code>PetV2</code></li>"));
+		Assert.assertEquals(html.indexOf("PetV2"), html.lastIndexOf("PetV2"));
+		Assert.assertFalse(html.contains("<del>Category</del></li>"));
+	}
+
+}
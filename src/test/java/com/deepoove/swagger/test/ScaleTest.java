@@ -0,0 +1,174 @@
+package com.deepoove.swagger.test;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.deepoove.swagger.diff.SwaggerDiff;
+import com.deepoove.swagger.diff.compare.DefinitionDiff;
+import com.deepoove.swagger.diff.compare.DefinitionDiffCache;
+import com.deepoove.swagger.diff.compare.PreparedSpec;
+import com.deepoove.swagger.diff.compare.SpecFingerprint;
+import com.deepoove.swagger.diff.compare.SpecificationDiff;
+import com.deepoove.swagger.diff.model.ChangedEndpoint;
+import com.deepoove.swagger.diff.output.MarkdownRender;
+import com.deepoove.swagger.test.SpecGenerator.SpecPair;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.swagger.models.HttpMethod;
+import io.swagger.models.Info;
+import io.swagger.models.Model;
+import io.swagger.models.ModelImpl;
+import io.swagger.models.Operation;
+import io.swagger.models.Path;
+import io.swagger.models.Response;
+import io.swagger.models.Swagger;
+import io.swagger.models.properties.IntegerProperty;
+import io.swagger.models.properties.RefProperty;
+import io.swagger.models.properties.StringProperty;
+
+public class ScaleTest {
+
+	@Test
+	public void testGeneratedSpec() {
+		SpecPair pair = new SpecGenerator(42).paths(300).operationsPerPath(3).parameters(5)
+				.definitions(60).nesting(4).generate();
+		SpecificationDiff diff = SpecificationDiff.diff(pair.getOldSpec(), pair.getNewSpec());
+		assertExpected(pair, diff);
+	}
+
+	@Test
+	public void testGeneratedRecursiveSpec() {
+		SpecPair pair = new SpecGenerator(7).paths(200).operationsPerPath(4).definitions(40)
+				.nesting(5).recursive(true).mutationRate(0.05).generate();
+		SpecificationDiff diff = SpecificationDiff.diff(pair.getOldSpec(), pair.getNewSpec());
+		assertExpected(pair, diff);
+	}
+
+	@Test
+	public void testGeneratedJson() throws IOException {
+		SpecPair pair = new SpecGenerator(1).paths(100).definitions(30).recursive(true).generate();
+		ObjectMapper mapper = new ObjectMapper();
+		SwaggerDiff diff = SwaggerDiff.compareV2(mapper.readTree(pair.getOldJson()),
+				mapper.readTree(pair.getNewJson()));
+		Assert.assertEquals(pair.getNewEndpoints(), diff.getNewEndpoints().size());
+		Assert.assertEquals(pair.getMissingEndpoints(), diff.getMissingEndpoints().size());
+		Assert.assertEquals(pair.getChangedEndpoints(), diff.getChangedEndpoints().size());
+		Assert.assertEquals(pair.getChangedOperations(), changedOperations(diff.getChangedEndpoints()));
+	}
+
+	@Test
+	public void testIncrementalDiff() throws IOException {
+		SpecPair pair = new SpecGenerator(11).paths(200).operationsPerPath(3).definitions(40).generate();
+		ObjectMapper mapper = new ObjectMapper();
+		PreparedSpec oldSpec = SwaggerDiff.prepareV2(mapper.readTree(pair.getOldJson()));
+		SwaggerDiff previous = SwaggerDiff.compare(oldSpec, SwaggerDiff.prepareV2(mapper.readTree(pair.getNewJson())));
+
+		// edit two operations of the new spec
+		JsonNode edited = mapper.readTree(pair.getNewJson());
+		Iterator<String> pathUrls = edited.get("paths").fieldNames();
+		ObjectNode first = (ObjectNode) edited.get("paths").get(pathUrls.next()).get("get");
+		first.put("summary", "edited");
+		ArrayNode parameters = (ArrayNode) edited.get("paths").get(pathUrls.next()).get("get").get("parameters");
+		parameters.addObject().put("name", "edited").put("in", "query").put("type", "string");
+		PreparedSpec newSpec = SwaggerDiff.prepareV2(edited);
+
+		SwaggerDiff incremental = SwaggerDiff.compare(previous, newSpec);
+		SwaggerDiff full = SwaggerDiff.compare(oldSpec, newSpec);
+		Assert.assertEquals(new MarkdownRender().render(full), new MarkdownRender().render(incremental));
+		Assert.assertEquals(2, incremental.getComparedOperations());
+		Assert.assertTrue(incremental.getReusedOperations() > 0);
+	}
+
+	@Test
+	public void testSuccessiveDiffsKeepBoundedCache() {
+		PreparedSpec oldSpec = PreparedSpec.of(petSpec(-1));
+		DefinitionDiffCache cache = new DefinitionDiffCache(50);
+		SpecificationDiff diff = SpecificationDiff.diff(oldSpec, PreparedSpec.of(petSpec(0)), null, cache);
+		PreparedSpec newSpec = null;
+		for (int i = 1; i < 300; i++) {
+			newSpec = PreparedSpec.of(petSpec(i));
+			diff = SpecificationDiff.diff(diff, newSpec, null);
+		}
+		Assert.assertTrue(cache.forSpecs(oldSpec, newSpec).size() <= 50);
+		Assert.assertEquals("field299", diff.getChangedEndpoints().get(0).getChangedOperations()
+				.get(HttpMethod.GET).getAddProps().get(0).getEl());
+	}
+
+	private static Swagger petSpec(int version) {
+		ModelImpl pet = new ModelImpl().property("id", new IntegerProperty());
+		if (version >= 0) pet.property("field" + version, new StringProperty());
+		return new Swagger().info(new Info().version(String.valueOf(version)))
+				.path("/pet", new Path().get(new Operation()
+						.response(200, new Response().schema(new RefProperty("Pet")))))
+				.model("Pet", pet);
+	}
+
+	@Test
+	public void testManyRenamedDefinitions() {
+		Map<String, Model> oldDefinitions = new LinkedHashMap<String, Model>();
+		Map<String, Model> newDefinitions = new LinkedHashMap<String, Model>();
+		for (int i = 0; i < 3000; i++) {
+			ModelImpl oldModel = new ModelImpl();
+			ModelImpl newModel = new ModelImpl();
+			for (int p = 0; p < 6; p++) {
+				oldModel.property("field" + i + "_" + p, new StringProperty());
+				newModel.property("field" + i + "_" + p, new StringProperty());
+			}
+			newModel.property("added" + i, new IntegerProperty());
+			oldDefinitions.put("Model" + i, oldModel);
+			newDefinitions.put("Model" + i + "V2", newModel);
+		}
+		DefinitionDiff diff = DefinitionDiff.diff(oldDefinitions, newDefinitions);
+		Assert.assertEquals(3000, diff.getRenamed().size());
+		Assert.assertEquals("Model42V2", diff.getRenamed().get("Model42"));
+		Assert.assertTrue(diff.getMissing().isEmpty());
+		Assert.assertTrue(diff.getIncreased().isEmpty());
+	}
+
+	@Test
+	public void testSameSeed() {
+		SpecGenerator generator = new SpecGenerator(3).paths(50).recursive(true);
+		Assert.assertEquals(generator.generate().getNewJson(), generator.generate().getNewJson());
+	}
+
+	@Test
+	public void testLongRefChain() {
+		Swagger swagger = new Swagger();
+		for (int i = 0; i < 20000; i++) {
+			swagger.addDefinition("Node" + i, new ModelImpl().property("next", new RefProperty("Node" + (i + 1))));
+		}
+		swagger.addDefinition("Node20000", new ModelImpl().property("last", new StringProperty()));
+		// the components are found without a call per definition of the chain
+		SpecFingerprint fingerprint = SpecFingerprint.of(swagger);
+		Assert.assertEquals(20001, new HashSet<String>(fingerprint.getDefinitions().values()).size());
+	}
+
+	private void assertExpected(SpecPair pair, SpecificationDiff diff) {
+		Assert.assertTrue(pair.getChangedOperations() > 0);
+		Assert.assertEquals(pair.getNewEndpoints(), diff.getNewEndpoints().size());
+		Assert.assertEquals(pair.getMissingEndpoints(), diff.getMissingEndpoints().size());
+		Assert.assertEquals(pair.getChangedEndpoints(), diff.getChangedEndpoints().size());
+		Assert.assertEquals(pair.getChangedOperations(), changedOperations(diff.getChangedEndpoints()));
+		// only the changed operations have another fingerprint
+		Assert.assertEquals(pair.getChangedOperations(), diff.getComparedOperations());
+		Assert.assertTrue(diff.getSkippedOperations() > diff.getComparedOperations());
+	}
+
+	private int changedOperations(Iterable<ChangedEndpoint> changedEndpoints) {
+		int count = 0;
+		for (ChangedEndpoint changedEndpoint : changedEndpoints) {
+			count += changedEndpoint.getChangedOperations().size();
+		}
+		return count;
+	}
+
+}
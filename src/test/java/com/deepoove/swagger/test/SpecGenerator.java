@@ -0,0 +1,258 @@
+package com.deepoove.swagger.test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import io.swagger.models.HttpMethod;
+import io.swagger.models.Info;
+import io.swagger.models.ModelImpl;
+import io.swagger.models.Operation;
+import io.swagger.models.Path;
+import io.swagger.models.RefModel;
+import io.swagger.models.Response;
+import io.swagger.models.Swagger;
+import io.swagger.models.parameters.BodyParameter;
+import io.swagger.models.parameters.PathParameter;
+import io.swagger.models.parameters.QueryParameter;
+import io.swagger.models.properties.LongProperty;
+import io.swagger.models.properties.RefProperty;
+import io.swagger.models.properties.StringProperty;
+import io.swagger.util.Json;
+
+/**
+ * generates a pair of old and new swagger v2.0 specs of a given shape for
+ * scale tests and benchmarks, the same seed always generates the same pair
+ * <p>
+ * Definitions are chained in groups of {@link #nesting(int)} by a ref property,
+ * with {@link #recursive(boolean)} the last definition of a group refers back
+ * to the first one and every definition refers to itself. Each operation
+ * refers to one definition by its body parameter (post, put and patch) and its
+ * 200 response. The new spec removes paths, adds paths, adds a query parameter
+ * to operations and adds a property to definitions, each at the mutation rate.
+ */
+public class SpecGenerator {
+
+	private static final HttpMethod[] METHODS = { HttpMethod.GET, HttpMethod.POST, HttpMethod.PUT,
+			HttpMethod.DELETE, HttpMethod.PATCH, HttpMethod.HEAD, HttpMethod.OPTIONS };
+
+	private final long seed;
+	private int paths = 100;
+	private int operationsPerPath = 2;
+	private int parameters = 3;
+	private int definitions = 20;
+	private int nesting = 3;
+	private boolean recursive;
+	private double mutationRate = 0.1;
+
+	public SpecGenerator(long seed) {
+		this.seed = seed;
+	}
+
+	public SpecGenerator paths(int paths) {
+		this.paths = paths;
+		return this;
+	}
+
+	public SpecGenerator operationsPerPath(int operationsPerPath) {
+		if (operationsPerPath < 1 || operationsPerPath > METHODS.length)
+			throw new IllegalArgumentException("operations per path should be 1 to " + METHODS.length);
+		this.operationsPerPath = operationsPerPath;
+		return this;
+	}
+
+	public SpecGenerator parameters(int parameters) {
+		this.parameters = parameters;
+		return this;
+	}
+
+	public SpecGenerator definitions(int definitions) {
+		if (definitions < 1) throw new IllegalArgumentException("at least one definition");
+		this.definitions = definitions;
+		return this;
+	}
+
+	public SpecGenerator nesting(int nesting) {
+		if (nesting < 1) throw new IllegalArgumentException("nesting should be positive");
+		this.nesting = nesting;
+		return this;
+	}
+
+	public SpecGenerator recursive(boolean recursive) {
+		this.recursive = recursive;
+		return this;
+	}
+
+	public SpecGenerator mutationRate(double mutationRate) {
+		this.mutationRate = mutationRate;
+		return this;
+	}
+
+	public SpecPair generate() {
+		Random random = new Random(seed);
+		SpecPair pair = new SpecPair();
+		pair.oldSpec = new Swagger().info(new Info().title("Synthetic").version("1.0.0"));
+		pair.newSpec = new Swagger().info(new Info().title("Synthetic").version("1.0.1"));
+
+		BitSet changedDefinitions = new BitSet(definitions);
+		for (int i = 0; i < definitions; i++) {
+			boolean changed = random.nextDouble() < mutationRate;
+			if (changed) changedDefinitions.set(i);
+			pair.oldSpec.addDefinition(definitionName(i), definition(i, false));
+			pair.newSpec.addDefinition(definitionName(i), definition(i, changed));
+		}
+		BitSet reachingChanged = reachingChanged(changedDefinitions);
+
+		for (int i = 0; i < paths; i++) {
+			boolean removed = random.nextDouble() < mutationRate;
+			Path oldPath = new Path();
+			Path newPath = new Path();
+			boolean changedPath = false;
+			for (int m = 0; m < operationsPerPath; m++) {
+				int definition = random.nextInt(definitions);
+				boolean addParameter = random.nextDouble() < mutationRate;
+				oldPath.set(METHODS[m].name().toLowerCase(), operation(i, METHODS[m], definition, false));
+				newPath.set(METHODS[m].name().toLowerCase(), operation(i, METHODS[m], definition, addParameter));
+				if (!removed && (addParameter || reachingChanged.get(definition))) {
+					pair.changedOperations++;
+					changedPath = true;
+				}
+			}
+			pair.oldSpec.path(pathUrl(i), oldPath);
+			if (removed) {
+				pair.missingEndpoints += operationsPerPath;
+			} else {
+				pair.newSpec.path(pathUrl(i), newPath);
+				if (changedPath) pair.changedEndpoints++;
+			}
+		}
+		int added = (int) Math.round(paths * mutationRate);
+		for (int i = paths; i < paths + added; i++) {
+			Path newPath = new Path();
+			for (int m = 0; m < operationsPerPath; m++) {
+				newPath.set(METHODS[m].name().toLowerCase(),
+						operation(i, METHODS[m], random.nextInt(definitions), false));
+			}
+			pair.newSpec.path(pathUrl(i), newPath);
+			pair.newEndpoints += operationsPerPath;
+		}
+		return pair;
+	}
+
+	private ModelImpl definition(int i, boolean changed) {
+		ModelImpl model = new ModelImpl().type("object");
+		model.property("id", new LongProperty());
+		model.property("name", new StringProperty().description("name of definition " + i));
+		int next = nextInGroup(i);
+		if (-1 != next) model.property("next", new RefProperty(definitionName(next)));
+		if (recursive) model.property("self", new RefProperty(definitionName(i)));
+		if (changed) model.property("added", new StringProperty().description("added to definition " + i));
+		return model;
+	}
+
+	/**
+	 * @return the definition referred by the next property of definition i, -1 for none
+	 */
+	private int nextInGroup(int i) {
+		if ((i + 1) % nesting != 0 && i + 1 < definitions) return i + 1;
+		if (recursive) return i - i % nesting;
+		return -1;
+	}
+
+	private BitSet reachingChanged(BitSet changedDefinitions) {
+		BitSet reaching = new BitSet(definitions);
+		for (int i = 0; i < definitions; i++) {
+			// the chain of next properties ends or comes back to the group start
+			for (int j = i, steps = 0; -1 != j && steps <= nesting; j = nextInGroup(j), steps++) {
+				if (changedDefinitions.get(j)) {
+					reaching.set(i);
+					break;
+				}
+			}
+		}
+		return reaching;
+	}
+
+	private Operation operation(int path, HttpMethod method, int definition, boolean addParameter) {
+		Operation operation = new Operation().summary(method + " resource " + path)
+				.operationId(method.name().toLowerCase() + "Resource" + path);
+		operation.parameter(new PathParameter().name("id").type("integer").format("int64"));
+		for (int p = 0; p < parameters; p++) {
+			operation.parameter(new QueryParameter().name("query" + p).type(p % 2 == 0 ? "string" : "integer")
+					.description("query parameter " + p));
+		}
+		if (HttpMethod.POST == method || HttpMethod.PUT == method || HttpMethod.PATCH == method) {
+			operation.parameter(new BodyParameter().name("body").schema(new RefModel(definitionName(definition))));
+		}
+		if (addParameter) {
+			operation.parameter(new QueryParameter().name("added").type("string"));
+		}
+		operation.response(200, new Response().description("successful operation")
+				.schema(new RefProperty(definitionName(definition))));
+		operation.response(404, new Response().description("not found"));
+		return operation;
+	}
+
+	private static String definitionName(int i) {
+		return "Definition" + i;
+	}
+
+	private static String pathUrl(int i) {
+		return "/resource" + i + "/{id}";
+	}
+
+	/**
+	 * generated old and new spec with the expected difference
+	 */
+	public static class SpecPair {
+
+		private Swagger oldSpec;
+		private Swagger newSpec;
+		private int newEndpoints;
+		private int missingEndpoints;
+		private int changedEndpoints;
+		private int changedOperations;
+
+		public Swagger getOldSpec() {
+			return oldSpec;
+		}
+
+		public Swagger getNewSpec() {
+			return newSpec;
+		}
+
+		public String getOldJson() {
+			return toJson(oldSpec);
+		}
+
+		public String getNewJson() {
+			return toJson(newSpec);
+		}
+
+		public int getNewEndpoints() {
+			return newEndpoints;
+		}
+
+		public int getMissingEndpoints() {
+			return missingEndpoints;
+		}
+
+		public int getChangedEndpoints() {
+			return changedEndpoints;
+		}
+
+		public int getChangedOperations() {
+			return changedOperations;
+		}
+
+		private static String toJson(Swagger swagger) {
+			try {
+				return Json.mapper().writeValueAsString(swagger);
+			} catch (JsonProcessingException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+}
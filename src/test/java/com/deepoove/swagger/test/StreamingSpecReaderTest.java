@@ -0,0 +1,107 @@
+package com.deepoove.swagger.test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.deepoove.swagger.diff.SwaggerDiff;
+import com.deepoove.swagger.diff.compare.PreparedSpec;
+import com.deepoove.swagger.diff.output.MarkdownRender;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.swagger.models.Swagger;
+import io.swagger.parser.SwaggerParser;
+import io.swagger.util.Yaml;
+
+public class StreamingSpecReaderTest {
+
+	final String SWAGGER_V2_DOC1 = "petstore_v2_1.json";
+	final String SWAGGER_V2_DOC2 = "petstore_v2_2.json";
+	final String SWAGGER_V2_RECURSIVE_DOC1 = "recursive_v2_1.json";
+	final String SWAGGER_V2_RECURSIVE_DOC2 = "recursive_v2_2.json";
+
+	@Test
+	public void testStreamingReader() throws IOException {
+		PreparedSpec oldSpec = SwaggerDiff.prepareStreaming(SWAGGER_V2_DOC1, null);
+		PreparedSpec newSpec = SwaggerDiff.prepareStreaming(SWAGGER_V2_DOC2, null);
+		String expected = new MarkdownRender().render(SwaggerDiff.compareV2(SWAGGER_V2_DOC1, SWAGGER_V2_DOC2));
+		Assert.assertEquals(expected, new MarkdownRender().render(SwaggerDiff.compare(oldSpec, newSpec)));
+		Assert.assertEquals(expected,
+				new MarkdownRender().render(SwaggerDiff.compare(oldSpec, SwaggerDiff.prepareV2(SWAGGER_V2_DOC2))));
+		Assert.assertEquals(
+				new MarkdownRender().render(SwaggerDiff.compareV2(SWAGGER_V2_RECURSIVE_DOC1, SWAGGER_V2_RECURSIVE_DOC2)),
+				new MarkdownRender().render(SwaggerDiff.compare(SwaggerDiff.prepareStreaming(SWAGGER_V2_RECURSIVE_DOC1, null),
+						SwaggerDiff.prepareStreaming(SWAGGER_V2_RECURSIVE_DOC2, null))));
+		// both readers give the same models
+		TestSupport.assertEqual(SwaggerDiff.compare(newSpec, SwaggerDiff.prepareV2(SWAGGER_V2_DOC2)));
+		Assert.assertEquals(0, SwaggerDiff.compare(newSpec, SwaggerDiff.prepareV2(SWAGGER_V2_DOC2)).getComparedOperations());
+		Swagger parsed = SwaggerDiff.prepareV2(SWAGGER_V2_DOC2).getSwagger();
+		Assert.assertEquals(parsed.getHost(), newSpec.getSwagger().getHost());
+		Assert.assertEquals(parsed.getBasePath(), newSpec.getSwagger().getBasePath());
+		Assert.assertEquals(parsed.getSchemes(), newSpec.getSwagger().getSchemes());
+		Assert.assertEquals(parsed.getTags().size(), newSpec.getSwagger().getTags().size());
+		Assert.assertEquals(parsed.getSecurityDefinitions().keySet(),
+				newSpec.getSwagger().getSecurityDefinitions().keySet());
+
+		File yaml = File.createTempFile("petstore", ".yaml");
+		try {
+			Yaml.mapper().writeValue(yaml, new ObjectMapper().readTree(TestSupport.readResource(SWAGGER_V2_DOC1)));
+			Assert.assertEquals(expected, new MarkdownRender().render(
+					SwaggerDiff.compare(SwaggerDiff.prepareStreaming(yaml.getPath(), null), newSpec)));
+			// not a swagger doc
+			Yaml.mapper().writeValue(yaml, new ObjectMapper().createObjectNode().put("openapi", "3.0.0"));
+			try {
+				SwaggerDiff.prepareStreaming(yaml.getPath(), null);
+				Assert.fail();
+			} catch (RuntimeException e) {
+				Assert.assertEquals("cannot read api-doc from spec.", e.getMessage());
+			}
+		} finally {
+			yaml.delete();
+		}
+	}
+
+	@Test
+	public void testLocalFile() throws IOException {
+		String expected = new MarkdownRender().render(SwaggerDiff.compareV2(SWAGGER_V2_DOC1, SWAGGER_V2_DOC2));
+		File plain = File.createTempFile("petstore", ".json");
+		File gzip = File.createTempFile("petstore", ".json.gz");
+		try {
+			byte[] content = TestSupport.readResource(SWAGGER_V2_DOC1);
+			FileOutputStream out = new FileOutputStream(plain);
+			try {
+				out.write(content);
+			} finally {
+				out.close();
+			}
+			GZIPOutputStream gzipOut = new GZIPOutputStream(new FileOutputStream(gzip));
+			try {
+				gzipOut.write(content);
+			} finally {
+				gzipOut.close();
+			}
+			// the mapped file, plain or gzip, gives the same doc as the swagger parser
+			PreparedSpec parsed = PreparedSpec.of(new SwaggerParser().read(SWAGGER_V2_DOC1, null, true));
+			PreparedSpec mapped = SwaggerDiff.prepareV2(plain.getPath());
+			PreparedSpec compressed = SwaggerDiff.prepareV2(gzip.getPath());
+			Assert.assertEquals(parsed.getSwagger(), mapped.getSwagger());
+			Assert.assertEquals(mapped.getSwagger(), compressed.getSwagger());
+			Assert.assertEquals(parsed.getFingerprint().getPaths(), mapped.getFingerprint().getPaths());
+			Assert.assertEquals(mapped.getFingerprint().getDefinitions(), compressed.getFingerprint().getDefinitions());
+			Assert.assertEquals(expected,
+					new MarkdownRender().render(SwaggerDiff.compareV2(plain.getPath(), SWAGGER_V2_DOC2)));
+			Assert.assertEquals(expected,
+					new MarkdownRender().render(SwaggerDiff.compareV2(gzip.getPath(), SWAGGER_V2_DOC2)));
+			Assert.assertEquals(expected,
+					new MarkdownRender().render(SwaggerDiff.compareV2("file:" + gzip.getPath(), SWAGGER_V2_DOC2)));
+		} finally {
+			plain.delete();
+			gzip.delete();
+		}
+	}
+
+}
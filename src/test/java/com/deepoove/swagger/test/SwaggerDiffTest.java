@@ -3,24 +3,45 @@ package com.deepoove.swagger.test;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.Assert;
 import org.junit.Test;
 
 import com.deepoove.swagger.diff.SwaggerDiff;
+import com.deepoove.swagger.diff.compare.ParameterDiff;
+import com.deepoove.swagger.diff.compare.PreparedSpec;
 import com.deepoove.swagger.diff.model.ChangedEndpoint;
+import com.deepoove.swagger.diff.model.ChangedOperation;
+import com.deepoove.swagger.diff.model.ElProperty;
 import com.deepoove.swagger.diff.model.Endpoint;
 import com.deepoove.swagger.diff.output.HtmlRender;
 import com.deepoove.swagger.diff.output.MarkdownRender;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.swagger.models.Info;
+import io.swagger.models.ModelImpl;
+import io.swagger.models.Operation;
+import io.swagger.models.Path;
+import io.swagger.models.Response;
+import io.swagger.models.Swagger;
+import io.swagger.models.parameters.HeaderParameter;
+import io.swagger.models.parameters.Parameter;
+import io.swagger.models.parameters.QueryParameter;
+import io.swagger.models.properties.IntegerProperty;
+import io.swagger.models.properties.RefProperty;
+import io.swagger.models.properties.StringProperty;
+
 public class SwaggerDiffTest {
 
 	final String SWAGGER_V2_DOC1 = "petstore_v2_1.json";
 	final String SWAGGER_V2_DOC2 = "petstore_v2_2.json";
 	final String SWAGGER_V2_EMPTY_DOC = "petstore_v2_empty.json";
+	final String SWAGGER_V2_RECURSIVE_DOC1 = "recursive_v2_1.json";
+	final String SWAGGER_V2_RECURSIVE_DOC2 = "recursive_v2_2.json";
 	final String SWAGGER_V2_HTTP = "http://petstore.swagger.io/v2/swagger.json";
 
 	@Test
@@ -116,6 +137,112 @@ public class SwaggerDiffTest {
 
 	}
 
+	@Test
+	public void testRecursiveDefinition() {
+		SwaggerDiff diff = SwaggerDiff.compareV2(SWAGGER_V2_RECURSIVE_DOC1, SWAGGER_V2_RECURSIVE_DOC2);
+		List<ChangedEndpoint> changedEndPoints = diff.getChangedEndpoints();
+		Assert.assertEquals(2, changedEndPoints.size());
+		Assert.assertEquals("/nodes", changedEndPoints.get(0).getPathUrl());
+		ChangedOperation changedOperation = changedEndPoints.get(0).getChangedOperations().values()
+				.iterator().next();
+		List<String> increased = new ArrayList<String>();
+		for (ElProperty prop : changedOperation.getChangedParameter().get(0).getIncreased()) {
+			increased.add(prop.getEl());
+		}
+		Assert.assertEquals("[body.label, body.sibling, body.owner.email]", increased.toString());
+		Assert.assertEquals(3, changedOperation.getAddProps().size());
+		Assert.assertTrue(changedOperation.getMissingProps().isEmpty());
+		assertEqual(SwaggerDiff.compareV2(SWAGGER_V2_RECURSIVE_DOC2, SWAGGER_V2_RECURSIVE_DOC2));
+	}
+
+	@Test
+	public void testParameterMatchedByLocation() {
+		List<Parameter> left = new ArrayList<Parameter>();
+		left.add(new HeaderParameter().name("version").description("api version"));
+		left.add(new QueryParameter().name("version").description("resource version"));
+		left.add(new QueryParameter().name("limit"));
+		List<Parameter> right = new ArrayList<Parameter>();
+		right.add(new QueryParameter().name("offset"));
+		right.add(new QueryParameter().name("version").description("resource version"));
+		right.add(new HeaderParameter().name("version").description("api version"));
+		right.add(new HeaderParameter().name("limit"));
+
+		ParameterDiff diff = ParameterDiff.buildWithDefinition(null, null).diff(left, right);
+		Assert.assertTrue(diff.getChanged().isEmpty());
+		Assert.assertEquals(1, diff.getMissing().size());
+		Assert.assertEquals("query", diff.getMissing().get(0).getIn());
+		Assert.assertEquals(2, diff.getIncreased().size());
+		Assert.assertEquals("offset", diff.getIncreased().get(0).getName());
+		Assert.assertEquals("header", diff.getIncreased().get(1).getIn());
+	}
+
+	@Test
+	public void testRenderToAppendable() throws IOException {
+		SwaggerDiff diff = SwaggerDiff.compareV2(SWAGGER_V2_DOC1, SWAGGER_V2_DOC2);
+		StringWriter markdown = new StringWriter();
+		new MarkdownRender().render(diff, markdown);
+		Assert.assertEquals(new MarkdownRender().render(diff), markdown.toString());
+
+		HtmlRender htmlRender = new HtmlRender("Changelog",
+				"http://deepoove.com/swagger-diff/stylesheets/demo.css");
+		StringWriter html = new StringWriter();
+		htmlRender.render(diff, html);
+		Assert.assertEquals(htmlRender.render(diff), html.toString());
+		Assert.assertTrue(html.toString().endsWith("</ol></div></div></body></html>"));
+	}
+
+	@Test
+	public void testPreparedSpec() {
+		PreparedSpec baseline = SwaggerDiff.prepareV2(SWAGGER_V2_DOC1);
+		SwaggerDiff diff = SwaggerDiff.compare(baseline, SwaggerDiff.prepareV2(SWAGGER_V2_DOC2));
+		Assert.assertEquals(new MarkdownRender().render(SwaggerDiff.compareV2(SWAGGER_V2_DOC1, SWAGGER_V2_DOC2)),
+				new MarkdownRender().render(diff));
+		assertEqual(SwaggerDiff.compare(baseline, baseline));
+		assertEqual(SwaggerDiff.compare(baseline.getSwagger(), SwaggerDiff.prepareV2(SWAGGER_V2_DOC1).getSwagger()));
+	}
+
+	@Test
+	public void testResponses() {
+		Swagger oldSpec = new Swagger().info(new Info().version("1.0.0"));
+		Swagger newSpec = new Swagger().info(new Info().version("1.0.1"));
+		oldSpec.addDefinition("ErrorResponse", new ModelImpl().property("message", new StringProperty()));
+		newSpec.addDefinition("ErrorResponse", new ModelImpl().property("message", new StringProperty())
+				.property("code", new StringProperty().description("error code")));
+		for (int i = 0; i < 20; i++) {
+			oldSpec.path("/resource" + i, new Path().get(new Operation()
+					.response(200, new Response().description("ok"))
+					.response(400, new Response().schema(new RefProperty("ErrorResponse"))
+							.header("X-Request-Id", new IntegerProperty()))
+					.response(404, new Response().description("not found"))));
+			newSpec.path("/resource" + i, new Path().get(new Operation()
+					.response(200, new Response().description("ok").header("X-Rate-Limit", new IntegerProperty()))
+					.response(201, new Response().description("created"))
+					.response(400, new Response().schema(new RefProperty("ErrorResponse"))
+							.header("X-Request-Id", new StringProperty()))));
+		}
+		SwaggerDiff diff = SwaggerDiff.compare(oldSpec, newSpec);
+		Assert.assertEquals(20, diff.getChangedEndpoints().size());
+		ChangedOperation changedOperation = diff.getChangedEndpoints().get(0).getChangedOperations().values()
+				.iterator().next();
+		Assert.assertFalse(changedOperation.isDiffProp());
+		Assert.assertTrue(changedOperation.isDiffResponse());
+		Assert.assertEquals("X-Request-Id", changedOperation.getChangedResponses().get(1).getChangedHeaders()
+				.get(0).getEl());
+		Assert.assertEquals("[201]", changedOperation.getAddResponses().keySet().toString());
+		Assert.assertEquals("[404]", changedOperation.getMissingResponses().keySet().toString());
+		Assert.assertEquals(2, changedOperation.getChangedResponses().size());
+		// the error definition is compared once for all the operations
+		Assert.assertEquals(1, diff.getComparedDefinitions());
+
+		String markdown = new MarkdownRender().render(diff);
+		Assert.assertTrue(markdown.contains("Add 201 //created\n"));
+		Assert.assertTrue(markdown.contains("Add header X-Rate-Limit in 200\n"));
+		Assert.assertTrue(markdown.contains("Add code in 400 //error code\n"));
+		Assert.assertTrue(markdown.contains("Delete 404 //not found\n"));
+		Assert.assertTrue(markdown.contains("Change header X-Request-Id type integer to string, format int32 to none in 400\n"));
+		Assert.assertTrue(new HtmlRender().render(diff).contains("<li>Add code in 400<span class=\"comment\">//error code</span></li>"));
+	}
+
 	@Test
 	public void testEqualJson() {
 		try {
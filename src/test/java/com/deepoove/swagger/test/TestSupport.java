@@ -0,0 +1,105 @@
+package com.deepoove.swagger.test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.junit.Assert;
+
+import com.deepoove.swagger.diff.SwaggerDiff;
+import com.deepoove.swagger.diff.model.ChangedEndpoint;
+import com.deepoove.swagger.diff.model.ChangedOperation;
+import com.deepoove.swagger.diff.model.ChangedParameter;
+import com.deepoove.swagger.diff.model.ElProperty;
+
+import io.swagger.models.HttpMethod;
+import io.swagger.models.parameters.Parameter;
+
+/**
+ * expected changes and assertions shared by the tests
+ */
+public class TestSupport {
+
+	/**
+	 * changes of petstore_v2_1.json to petstore_v2_2.json, see
+	 * {@link #changes(SwaggerDiff)}
+	 */
+	public static final List<String> PETSTORE_CHANGES = Arrays.asList(
+			"PUT /pet [~body, +body.newFeild, +body.category.newCatFeild, -body.category.name]",
+			"POST /pet [+tags, ~body, +body.newFeild, +body.category.newCatFeild, -body.category.name]",
+			"GET /pet/findByStatus [+newFeild, +category.newCatFeild, -category.name]",
+			"GET /pet/findByTags [+newFeild, +category.newCatFeild, -category.name]",
+			"DELETE /pet/{petId} [+newHeaderParam]",
+			"POST /pet/{petId}/uploadImage [~petId]",
+			"POST /user [~body, +body.newUserFeild, -body.phone]",
+			"GET /user/login [-password]",
+			"GET /user/{username} [+newUserFeild, -phone]",
+			"PUT /user/{username} [~body, +body.newUserFeild, -body.phone]");
+
+	/**
+	 * @return one line per changed operation: the parameters added (+),
+	 *         deleted (-) or changed (~), then the properties of the changed
+	 *         parameters and of the responses by el
+	 */
+	public static List<String> changes(SwaggerDiff diff) {
+		List<String> changes = new ArrayList<String>();
+		for (ChangedEndpoint changedEndpoint : diff.getChangedEndpoints()) {
+			for (Entry<HttpMethod, ChangedOperation> entry : changedEndpoint.getChangedOperations().entrySet()) {
+				ChangedOperation operation = entry.getValue();
+				List<String> items = new ArrayList<String>();
+				for (Parameter param : operation.getAddParameters()) {
+					items.add("+" + param.getName());
+				}
+				for (Parameter param : operation.getMissingParameters()) {
+					items.add("-" + param.getName());
+				}
+				for (ChangedParameter param : operation.getChangedParameter()) {
+					items.add("~" + param.getRightParameter().getName());
+					addEls(items, param.getIncreased(), param.getMissing(), param.getChanged());
+				}
+				addEls(items, operation.getAddProps(), operation.getMissingProps(), operation.getChangedProps());
+				changes.add(entry.getKey() + " " + changedEndpoint.getPathUrl() + " " + items);
+			}
+		}
+		return changes;
+	}
+
+	private static void addEls(List<String> items, List<ElProperty> increased, List<ElProperty> missing,
+			List<ElProperty> changed) {
+		for (ElProperty prop : increased) {
+			items.add("+" + prop.getEl());
+		}
+		for (ElProperty prop : missing) {
+			items.add("-" + prop.getEl());
+		}
+		for (ElProperty prop : changed) {
+			items.add("~" + prop.getEl());
+		}
+	}
+
+	public static void assertEqual(SwaggerDiff diff) {
+		Assert.assertTrue(diff.getNewEndpoints().isEmpty());
+		Assert.assertTrue(diff.getMissingEndpoints().isEmpty());
+		Assert.assertTrue(diff.getChangedEndpoints().isEmpty());
+	}
+
+	public static byte[] readResource(String name) throws IOException {
+		InputStream in = TestSupport.class.getClassLoader().getResourceAsStream(name);
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int n;
+			while (-1 != (n = in.read(buffer))) {
+				out.write(buffer, 0, n);
+			}
+			return out.toByteArray();
+		} finally {
+			in.close();
+		}
+	}
+
+}